@@ -0,0 +1,78 @@
+package ru.hse.java.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.hse.java.util.DictionaryImpl;
+import ru.hse.java.util.HashIndexing;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Распределение пар по корзинам DictionaryImpl при разных HashIndexing для последовательных ключей
+ * Кроме времени get, в отчёт попадают вспомогательные счётчики из Distribution:
+ *   самая длинная корзина, доля пустых корзин и среднее число пар, просматриваемых успешным get
+ *   ./gradlew jmh -Pjmh="BucketDistributionBenchmark -p size=1000000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BucketDistributionBenchmark {
+    @Param({"MODULO", "POWER_OF_TWO"})
+    private HashIndexing indexing;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"INTEGER", "STRING"})
+    private DictionaryBenchmark.KeyType keyType;
+
+    private DictionaryImpl<Object, Object> dictionary;
+    private Object[] keys;
+    private int cursor;
+
+    /*
+     * Показатели считаются по гистограмме bucketLengthHistogram один раз на итерацию
+     * Пара в корзине длины l находится в среднем за (l + 1) / 2 сравнений
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Distribution {
+        public int maxBucketLength;
+        public double emptyBucketShare;
+        public double averageProbes;
+
+        @Setup(Level.Iteration)
+        public void setUp(BucketDistributionBenchmark benchmark) {
+            int[] histogram = benchmark.dictionary.bucketLengthHistogram();
+            long buckets = 0;
+            long probes = 0;
+            for (int length = 0; length < histogram.length; length++) {
+                buckets += histogram[length];
+                probes += (long) histogram[length] * length * (length + 1) / 2;
+            }
+            maxBucketLength = histogram.length - 1;
+            emptyBucketShare = (double) histogram[0] / buckets;
+            averageProbes = (double) probes / benchmark.size;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dictionary = new DictionaryImpl<>(0.75, 2, 10, 0, indexing);
+        keys = new Object[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = keyType.key(i);
+            dictionary.put(keys[i], i);
+        }
+        Collections.shuffle(Arrays.asList(keys), new Random(14));
+    }
+
+    @Benchmark
+    public Object get(Distribution distribution) {
+        cursor = cursor + 1 == size ? 0 : cursor + 1;
+        return dictionary.get(keys[cursor]);
+    }
+}
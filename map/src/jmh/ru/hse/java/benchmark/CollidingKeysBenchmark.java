@@ -0,0 +1,99 @@
+package ru.hse.java.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.hse.java.util.DictionaryImpl;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * get, когда все ключи попадают в одну корзину: дерево в корзине против списка
+ * "DictionaryImpl.lists" -- таблица, которая не растёт (огромный loadFactor) и остаётся меньше
+ *   порога, с которого корзины превращаются в деревья, поэтому все её корзины -- списки
+ * Ключи без Comparable дерево упорядочить не может: с одинаковым хешем поиск в нём обходит всю корзину
+ *   ./gradlew jmh -Pjmh="CollidingKeysBenchmark -p keyKind=COMPARABLE"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollidingKeysBenchmark {
+    @Param({"DictionaryImpl", "DictionaryImpl.lists", "HashMap"})
+    private String implementation;
+
+    @Param({"8", "64", "1024", "16384"})
+    private int collisions;
+
+    @Param({"COMPARABLE", "NON_COMPARABLE"})
+    private String keyKind;
+
+    private Map<Object, Object> map;
+    private Object[] keys;
+    private Object[] missingKeys;
+    private int cursor;
+
+    // одинаковый hashCode у всех, равенство по номеру
+    private static final class CollidingKey {
+        private final int id;
+
+        private CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+    private Object key(int i) {
+        return keyKind.equals("COMPARABLE") ? DictionaryBenchmark.KeyType.COLLIDING.key(i) : new CollidingKey(i);
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (implementation) {
+            case "DictionaryImpl":
+                map = new DictionaryImpl<>();
+                break;
+            case "DictionaryImpl.lists":
+                map = new DictionaryImpl<>(Integer.MAX_VALUE, 2, 10);
+                break;
+            case "HashMap":
+                map = new HashMap<>();
+                break;
+            default:
+                throw new IllegalArgumentException("unknown implementation " + implementation);
+        }
+        keys = new Object[collisions];
+        missingKeys = new Object[collisions];
+        for (int i = 0; i < collisions; i++) {
+            keys[i] = key(i);
+            missingKeys[i] = key(collisions + i);
+            map.put(keys[i], i);
+        }
+        Collections.shuffle(Arrays.asList(keys), new Random(14));
+    }
+
+    private int nextIndex() {
+        cursor = cursor + 1 == collisions ? 0 : cursor + 1;
+        return cursor;
+    }
+
+    @Benchmark
+    public Object get() {
+        return map.get(keys[nextIndex()]);
+    }
+
+    @Benchmark
+    public Object getMissing() {
+        return map.get(missingKeys[nextIndex()]);
+    }
+}
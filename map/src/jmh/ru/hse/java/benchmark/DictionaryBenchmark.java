@@ -0,0 +1,148 @@
+package ru.hse.java.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.hse.java.util.DictionaryImpl;
+import ru.hse.java.util.HashIndexing;
+import ru.hse.java.util.OpenAddressingDictionary;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Сравнение DictionaryImpl с java.util.HashMap на get/put/remove/обходе
+ * Полная матрица параметров большая, для отдельного прогона удобно сузить её, например:
+ *   ./gradlew jmh -Pjmh="DictionaryBenchmark.get -p size=1000000 -p keyType=STRING"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DictionaryBenchmark {
+    @Param({"DictionaryImpl", "DictionaryImpl.POWER_OF_TWO", "OpenAddressingDictionary", "HashMap"})
+    private String implementation;
+
+    @Param({"100", "10000", "1000000", "10000000"})
+    private int size;
+
+    @Param({"INTEGER", "STRING", "COLLIDING"})
+    private KeyType keyType;
+
+    @Param({"0.5", "0.75"})
+    private double loadFactor;
+
+    /*
+     * С одинаковым хешем линейное пробирование делает заполнение квадратичным:
+     *   на 1e6 ключей setUp не закончится, поэтому OpenAddressingDictionary с COLLIDING меряется только на малых size
+     */
+    private static final int MAX_OPEN_ADDRESSING_COLLISIONS = 10000;
+
+    private Map<Object, Object> map;
+    private Object[] keys;
+    private Object[] missingKeys;
+    private int cursor;
+
+    public enum KeyType {
+        INTEGER {
+            @Override
+            Object key(int i) {
+                return i;
+            }
+        },
+        STRING {
+            @Override
+            Object key(int i) {
+                return "key" + i;
+            }
+        },
+        /*
+         * У "Aa" и "BB" одинаковый hashCode, поэтому все ключи -- склейки 32 таких кусков --
+         *   попадают в одну корзину
+         * Кусок на каждый бит int, чтобы разные неотрицательные i давали разные ключи
+         */
+        COLLIDING {
+            @Override
+            Object key(int i) {
+                StringBuilder builder = new StringBuilder(64);
+                for (int bit = 0; bit < 32; bit++) {
+                    builder.append((i >>> bit & 1) == 0 ? "Aa" : "BB");
+                }
+                return builder.toString();
+            }
+        };
+
+        abstract Object key(int i);
+    }
+
+    static Map<Object, Object> create(String implementation, double loadFactor) {
+        switch (implementation) {
+            case "DictionaryImpl":
+                return new DictionaryImpl<>(loadFactor, 2, 10);
+            case "DictionaryImpl.POWER_OF_TWO":
+                return new DictionaryImpl<>(loadFactor, 2, 10, 0, HashIndexing.POWER_OF_TWO);
+            case "OpenAddressingDictionary":
+                return new OpenAddressingDictionary<>(Math.min(loadFactor, 0.9));
+            case "HashMap":
+                return new HashMap<>(16, (float) loadFactor);
+            default:
+                throw new IllegalArgumentException("unknown implementation " + implementation);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (implementation.equals("OpenAddressingDictionary") && keyType == KeyType.COLLIDING
+                && size > MAX_OPEN_ADDRESSING_COLLISIONS) {
+            throw new IllegalStateException("skipped: OpenAddressingDictionary with COLLIDING keys is quadratic to fill, "
+                    + "size " + size + " > " + MAX_OPEN_ADDRESSING_COLLISIONS);
+        }
+        map = create(implementation, loadFactor);
+        keys = new Object[size];
+        missingKeys = new Object[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = keyType.key(i);
+            missingKeys[i] = keyType.key(size + i);
+            map.put(keys[i], i);
+        }
+        Collections.shuffle(Arrays.asList(keys), new Random(14));
+    }
+
+    private int nextIndex() {
+        cursor = cursor + 1 == size ? 0 : cursor + 1;
+        return cursor;
+    }
+
+    @Benchmark
+    public Object get() {
+        return map.get(keys[nextIndex()]);
+    }
+
+    @Benchmark
+    public Object getMissing() {
+        return map.get(missingKeys[nextIndex()]);
+    }
+
+    @Benchmark
+    public Object putExisting() {
+        int i = nextIndex();
+        return map.put(keys[i], i);
+    }
+
+    // удаление и обратная вставка, чтобы размер словаря не менялся между вызовами
+    @Benchmark
+    public Object removeAndPut() {
+        int i = nextIndex();
+        Object value = map.remove(keys[i]);
+        map.put(keys[i], value);
+        return value;
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Map.Entry<Object, Object> entry : map.entrySet()) {
+            blackhole.consume(entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ru.hse.java.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.hse.java.util.DictionaryImpl;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Задержка get у замороженной копии (Dictionary.freeze) по сравнению с исходным DictionaryImpl
+ *   и стандартными HashMap / Map.copyOf
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImmutableDictionaryBenchmark {
+    @Param({"DictionaryImpl", "DictionaryImpl.freeze", "HashMap", "Map.copyOf"})
+    private String implementation;
+
+    @Param({"100", "10000", "1000000"})
+    private int size;
+
+    @Param({"INTEGER", "STRING"})
+    private DictionaryBenchmark.KeyType keyType;
+
+    private Map<Object, Object> map;
+    private Object[] keys;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DictionaryImpl<Object, Object> dictionary = new DictionaryImpl<>();
+        keys = new Object[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = keyType.key(i);
+            dictionary.put(keys[i], i);
+        }
+        Collections.shuffle(Arrays.asList(keys), new Random(14));
+        switch (implementation) {
+            case "DictionaryImpl":
+                map = dictionary;
+                break;
+            case "DictionaryImpl.freeze":
+                map = dictionary.freeze();
+                break;
+            case "HashMap":
+                map = new HashMap<>(dictionary);
+                break;
+            case "Map.copyOf":
+                map = Map.copyOf(dictionary);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown implementation " + implementation);
+        }
+    }
+
+    @Benchmark
+    public Object get() {
+        cursor = cursor + 1 == size ? 0 : cursor + 1;
+        return map.get(keys[cursor]);
+    }
+}
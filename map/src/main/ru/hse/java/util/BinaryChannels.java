@@ -0,0 +1,133 @@
+package ru.hse.java.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/*
+ * Буферизованные чтение и запись каналов для бинарного формата DictionaryImpl:
+ *   целые числа пишутся как varint (по 7 бит в байте, старший бит -- "есть продолжение"),
+ *   массивы байт -- как есть, их длины кодирует вызывающий код
+ */
+final class BinaryChannels {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private BinaryChannels() {
+    }
+
+    static final class Output {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        Output(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void writeInt(int value) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        void writeVarint(int value) throws IOException {
+            if (buffer.remaining() < 5) {
+                flush();
+            }
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void writeBytes(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.remaining()) {
+                flush();
+            }
+            if (bytes.length > buffer.capacity()) {
+                writeFully(ByteBuffer.wrap(bytes));
+            } else {
+                buffer.put(bytes);
+            }
+        }
+
+        private void writeFully(ByteBuffer data) throws IOException {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+    }
+
+    static final class Input {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+
+        Input(ReadableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        // дочитывает канал, пока в буфере не окажется хотя бы n байт (n не больше размера буфера)
+        private void require(int n) throws IOException {
+            if (buffer.remaining() >= n) {
+                return;
+            }
+            buffer.compact();
+            try {
+                while (buffer.position() < n) {
+                    if (channel.read(buffer) < 0) {
+                        throw new EOFException("unexpected end of dictionary stream");
+                    }
+                }
+            } finally {
+                buffer.flip();
+            }
+        }
+
+        int readInt() throws IOException {
+            require(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        int readVarint() throws IOException {
+            int result = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                require(1);
+                byte b = buffer.get();
+                result |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return result;
+                }
+            }
+            throw new IOException("malformed varint in dictionary stream");
+        }
+
+        /*
+         * Длина приходит из самого потока, поэтому массив растёт вдвое по мере чтения, а не выделяется сразу:
+         *   испорченная длина в коротком потоке кончается EOFException, а не OutOfMemoryError
+         */
+        byte[] readBytes(int length) throws IOException {
+            byte[] result = new byte[Math.min(length, BUFFER_SIZE)];
+            int filled = 0;
+            while (filled < length) {
+                if (filled == result.length) {
+                    result = Arrays.copyOf(result, (int) Math.min(length, 2L * result.length));
+                }
+                require(1);
+                int n = Math.min(result.length - filled, buffer.remaining());
+                buffer.get(result, filled, n);
+                filled += n;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ru.hse.java.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Перевод ключей и значений в байты и обратно для OffHeapDictionary и бинарного формата DictionaryImpl
+ * Равные объекты обязаны переводиться в одинаковые байты: OffHeapDictionary сравнивает ключи побайтово
+ */
+public interface ByteSerializer<T> {
+    byte[] toBytes(T value);
+
+    T fromBytes(byte[] bytes);
+
+    ByteSerializer<String> STRING = new ByteSerializer<>() {
+        @Override
+        public byte[] toBytes(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String fromBytes(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    ByteSerializer<byte[]> BYTES = new ByteSerializer<>() {
+        @Override
+        public byte[] toBytes(byte[] value) {
+            return value;
+        }
+
+        @Override
+        public byte[] fromBytes(byte[] bytes) {
+            return bytes;
+        }
+    };
+
+    ByteSerializer<Integer> INTEGER = new ByteSerializer<>() {
+        @Override
+        public byte[] toBytes(Integer value) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+        }
+
+        @Override
+        public Integer fromBytes(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).getInt();
+        }
+    };
+
+    ByteSerializer<Long> LONG = new ByteSerializer<>() {
+        @Override
+        public byte[] toBytes(Long value) {
+            return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+        }
+
+        @Override
+        public Long fromBytes(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).getLong();
+        }
+    };
+}
@@ -0,0 +1,520 @@
+package ru.hse.java.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/*
+ * Потокобезопасная хеш-таблица со списками в корзинах
+ * Изменения защищены набором блокировок (lock striping): корзина i охраняется блокировкой i % stripes,
+ *   поэтому потоки, пишущие в разные корзины, не мешают друг другу
+ * Составные операции (putIfAbsent, replace, compute*, merge) целиком выполняются под блокировкой корзины,
+ *   функции из аргументов вызываются под ней же и не должны долго работать
+ * get/containsKey не берут блокировок: головы корзин читаются через AtomicReferenceArray,
+ *   а ссылки next и значения узлов volatile
+ * Итераторы слабо согласованы: не бросают ConcurrentModificationException и
+ *   видят изменения, сделанные после своего создания, только если успели до них дойти
+ */
+public class ConcurrentDictionary<K, V> implements Dictionary<K, V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private volatile AtomicReferenceArray<Node<K, V>> table;
+    private final ReentrantLock[] locks;
+    private final LongAdder size = new LongAdder();
+    private final double loadFactor;
+    private Set<K> keySet;
+    private Collection<V> values;
+    private Set<Entry<K, V>> entrySet;
+
+    private static class Node<K, V> {
+        private final int hash;
+        private final K key;
+        private volatile V value;
+        private volatile Node<K, V> next;
+
+        private Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    public ConcurrentDictionary() {
+        this(0.75, 16);
+    }
+
+    /*
+     * concurrencyLevel -- ожидаемое число одновременно пишущих потоков,
+     *   число блокировок округляется вверх до степени двойки
+     */
+    public ConcurrentDictionary(double loadFactor, int concurrencyLevel) {
+        if (loadFactor <= 0 || concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("loadFactor and concurrencyLevel must be positive");
+        }
+        this.loadFactor = loadFactor;
+        int stripes = 1;
+        while (stripes < concurrencyLevel) {
+            stripes <<= 1;
+        }
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        table = new AtomicReferenceArray<>(Math.max(MIN_CAPACITY, stripes));
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /*
+     * Размер таблицы -- степень двойки не меньше числа блокировок,
+     *   поэтому блокировка корзины не зависит от текущего размера таблицы
+     */
+    private ReentrantLock lockFor(int hash) {
+        return locks[hash & (locks.length - 1)];
+    }
+
+    private Node<K, V> findNode(Object key) {
+        int hash = spread(key.hashCode());
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        for (Node<K, V> node = tab.get(hash & (tab.length() - 1)); node != null; node = node.next) {
+            if (node.hash == hash && key.equals(node.key)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return (int) size.sum();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size.sum() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return findNode(key) != null;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        for (int i = 0; i < tab.length(); i++) {
+            for (Node<K, V> node = tab.get(i); node != null; node = node.next) {
+                if (Objects.equals(value, node.value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = findNode(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public V put(@NotNull K key, V value) {
+        return put(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(@NotNull K key, V value) {
+        return put(key, value, true);
+    }
+
+    private V put(K key, V value, boolean onlyIfAbsent) {
+        int hash = spread(key.hashCode());
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            int ind = hash & (tab.length() - 1);
+            Node<K, V> head = tab.get(ind);
+            for (Node<K, V> node = head; node != null; node = node.next) {
+                if (node.hash == hash && key.equals(node.key)) {
+                    V oldValue = node.value;
+                    if (!onlyIfAbsent || oldValue == null) {
+                        node.value = value;
+                    }
+                    return oldValue;
+                }
+            }
+            tab.set(ind, new Node<>(hash, key, value, head));
+            size.increment();
+        } finally {
+            lock.unlock();
+        }
+        if (size.sum() > table.length() * loadFactor) {
+            rehashing();
+        }
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        Node<K, V> node = removeNode(key, null, false);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        return removeNode(key, value, true) != null;
+    }
+
+    private Node<K, V> removeNode(Object key, Object expected, boolean matchValue) {
+        int hash = spread(key.hashCode());
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            int ind = hash & (tab.length() - 1);
+            Node<K, V> prev = null;
+            for (Node<K, V> node = tab.get(ind); node != null; prev = node, node = node.next) {
+                if (node.hash == hash && key.equals(node.key)) {
+                    if (matchValue && !Objects.equals(expected, node.value)) {
+                        return null;
+                    }
+                    if (prev == null) {
+                        tab.set(ind, node.next);
+                    } else {
+                        prev.next = node.next;
+                    }
+                    size.decrement();
+                    return node;
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean replace(@NotNull K key, V oldValue, V newValue) {
+        int hash = spread(key.hashCode());
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            Node<K, V> node = findNode(key);
+            if (node == null || !Objects.equals(oldValue, node.value)) {
+                return false;
+            }
+            node.value = newValue;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public V replace(@NotNull K key, V value) {
+        int hash = spread(key.hashCode());
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            Node<K, V> node = findNode(key);
+            if (node == null) {
+                return null;
+            }
+            V oldValue = node.value;
+            node.value = value;
+            return oldValue;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // каждая пара заменяется атомарно, но весь обход -- нет: пары, добавленные во время него, могут не попасть
+    @Override
+    public void replaceAll(@NotNull BiFunction<? super K, ? super V, ? extends V> function) {
+        for (K key : keySet()) {
+            int hash = spread(key.hashCode());
+            ReentrantLock lock = lockFor(hash);
+            lock.lock();
+            try {
+                Node<K, V> node = findNode(key);
+                if (node != null) {
+                    node.value = function.apply(key, node.value);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /*
+     * Общая часть compute-методов: под блокировкой корзины передаёт remapping текущее значение
+     *   (null, если ключа нет) и записывает результат; null удаляет пару
+     */
+    private V computeNode(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        int hash = spread(key.hashCode());
+        ReentrantLock lock = lockFor(hash);
+        V newValue;
+        lock.lock();
+        try {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            int ind = hash & (tab.length() - 1);
+            Node<K, V> prev = null;
+            Node<K, V> node = tab.get(ind);
+            while (node != null && !(node.hash == hash && key.equals(node.key))) {
+                prev = node;
+                node = node.next;
+            }
+            newValue = remapping.apply(key, node == null ? null : node.value);
+            if (node != null) {
+                if (newValue != null) {
+                    node.value = newValue;
+                } else {
+                    if (prev == null) {
+                        tab.set(ind, node.next);
+                    } else {
+                        prev.next = node.next;
+                    }
+                    size.decrement();
+                }
+                return newValue;
+            }
+            if (newValue == null) {
+                return null;
+            }
+            tab.set(ind, new Node<>(hash, key, newValue, tab.get(ind)));
+            size.increment();
+        } finally {
+            lock.unlock();
+        }
+        if (size.sum() > table.length() * loadFactor) {
+            rehashing();
+        }
+        return newValue;
+    }
+
+    @Override
+    public V compute(@NotNull K key, @NotNull BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return computeNode(key, remappingFunction);
+    }
+
+    @Override
+    public V computeIfAbsent(@NotNull K key, @NotNull Function<? super K, ? extends V> mappingFunction) {
+        return computeNode(key, (k, oldValue) -> oldValue != null ? oldValue : mappingFunction.apply(k));
+    }
+
+    @Override
+    public V computeIfPresent(@NotNull K key,
+                              @NotNull BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return computeNode(key, (k, oldValue) -> oldValue == null ? null : remappingFunction.apply(k, oldValue));
+    }
+
+    @Override
+    public V merge(@NotNull K key, @NotNull V value,
+                   @NotNull BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value);
+        return computeNode(key, (k, oldValue) -> oldValue == null ? value : remappingFunction.apply(oldValue, value));
+    }
+
+    /*
+     * Увеличивает таблицу вдвое под всеми блокировками
+     * Узлы копируются, а старая таблица не меняется, поэтому читатели,
+     *   успевшие взять ссылку на неё, продолжают видеть согласованные списки
+     */
+    private void rehashing() {
+        lockAll();
+        try {
+            AtomicReferenceArray<Node<K, V>> oldTable = table;
+            if (size.sum() <= oldTable.length() * loadFactor) {
+                return;
+            }
+            AtomicReferenceArray<Node<K, V>> newTable = new AtomicReferenceArray<>(oldTable.length() * 2);
+            int mask = newTable.length() - 1;
+            for (int i = 0; i < oldTable.length(); i++) {
+                for (Node<K, V> node = oldTable.get(i); node != null; node = node.next) {
+                    int ind = node.hash & mask;
+                    newTable.set(ind, new Node<>(node.hash, node.key, node.value, newTable.get(ind)));
+                }
+            }
+            table = newTable;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void putAll(@NotNull Map<? extends K, ? extends V> m) {
+        for (Map.Entry<? extends K, ? extends V> element : m.entrySet()) {
+            put(element.getKey(), element.getValue());
+        }
+    }
+
+    @Override
+    public void clear() {
+        lockAll();
+        try {
+            table = new AtomicReferenceArray<>(Math.max(MIN_CAPACITY, locks.length));
+            size.reset();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public @NotNull Set<K> keySet() {
+        if (keySet == null) {
+            keySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<K> iterator() {
+                    return new TableIterator<>() {
+                        @Override
+                        K get(Node<K, V> node) {
+                            return node.key;
+                        }
+                    };
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public int size() {
+                    return ConcurrentDictionary.this.size();
+                }
+            };
+        }
+        return keySet;
+    }
+
+    @Override
+    public @NotNull Collection<V> values() {
+        if (values == null) {
+            values = new AbstractCollection<>() {
+                @Override
+                public @NotNull Iterator<V> iterator() {
+                    return new TableIterator<>() {
+                        @Override
+                        V get(Node<K, V> node) {
+                            return node.value;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return ConcurrentDictionary.this.size();
+                }
+            };
+        }
+        return values;
+    }
+
+    @Override
+    public @NotNull Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<K, V>> iterator() {
+                    return new TableIterator<>() {
+                        @Override
+                        Entry<K, V> get(Node<K, V> node) {
+                            return new WriteThroughEntry(node.key, node.value);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return ConcurrentDictionary.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    // пару, которую другой поток успел удалить, setValue обратно не добавляет
+    private class WriteThroughEntry extends AbstractMap.SimpleEntry<K, V> {
+        private WriteThroughEntry(K key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            replace(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+
+    /*
+     * Обходит таблицу, актуальную на момент создания итератора
+     * remove() удаляет последний возвращённый ключ из словаря обычным remove(key)
+     */
+    private abstract class TableIterator<T> implements Iterator<T> {
+        private final AtomicReferenceArray<Node<K, V>> tab = table;
+        private int ind = -1;
+        private Node<K, V> next;
+        private Node<K, V> last;
+
+        private TableIterator() {
+            advance();
+        }
+
+        private void advance() {
+            if (next != null) {
+                next = next.next;
+            }
+            while (next == null && ++ind < tab.length()) {
+                next = tab.get(ind);
+            }
+        }
+
+        abstract T get(Node<K, V> node);
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            advance();
+            return get(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            ConcurrentDictionary.this.remove(last.key);
+            last = null;
+        }
+    }
+}
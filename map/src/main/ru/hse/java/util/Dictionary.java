@@ -3,6 +3,7 @@ package ru.hse.java.util;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -45,6 +46,44 @@ public interface Dictionary<K, V> extends Map<K, V> {
     @Override
     void clear();
 
+    /*
+     * Вернуть словарь из тех ключей keys, которые есть в таблице, и их значений
+     * Ключей, которых нет в таблице, в результате нет; остальные идут в порядке обхода keys
+     */
+    default @NotNull Map<K, V> getAll(@NotNull Collection<? extends K> keys) {
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = get(key);
+            if (value != null || containsKey(key)) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Забыть про пары со всеми ключами из keys
+     * Вернуть true, если хотя бы одна пара была удалена
+     */
+    default boolean removeAll(@NotNull Collection<?> keys) {
+        boolean changed = false;
+        for (Object key : keys) {
+            if (containsKey(key)) {
+                remove(key);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /*
+     * Вернуть неизменяемую копию словаря, см. ImmutableDictionary
+     * Последующие изменения этого словаря на копию не влияют
+     */
+    default @NotNull Dictionary<K, V> freeze() {
+        return ImmutableDictionary.copyOf(this);
+    }
+
     /*
      * Все коллекции из трёх методов ниже должны поддерживать только те методы коллекции/множества,
      *   которые не меняют исходную коллекцию.
@@ -2,46 +2,193 @@ package ru.hse.java.util;
 
 import org.jetbrains.annotations.NotNull;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.*;
 
 public class DictionaryImpl<K, V> implements Dictionary<K, V> {
+    /*
+     * Корзина-список длиннее TREEIFY_THRESHOLD превращается в TreeBucket (если таблица не меньше
+     *   MIN_TREEIFY_CAPACITY, иначе длинные корзины скорее исправит рехеширование),
+     *   а дерево короче UNTREEIFY_THRESHOLD снова становится списком
+     */
+    private static final int TREEIFY_THRESHOLD = 8;
+    private static final int UNTREEIFY_THRESHOLD = 6;
+    private static final int MIN_TREEIFY_CAPACITY = 64;
+    // "DICT", начало бинарного представления, см. writeTo
+    private static final int MAGIC = 0x44494354;
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_PRESIZED_PAIRS = 1 << 20;
+
     private int size;
     private int capacity;
     private int preCapacity;
-    private List<MyLinkedList<AbstractMap.SimpleEntry<K, V>>> data;
+    private List<AbstractCollection<HashEntry<K, V>>> data;
+    private List<AbstractCollection<HashEntry<K, V>>> oldData;
+    private int oldCapacity;
+    private int migrated;
+    // корзин за операцию в текущем переносе, не меньше migrationStep, см. resize
+    private int currentStep;
+    private final UnrolledLinkedList<HashEntry<K, V>> emptyBucket = new UnrolledLinkedList<>();
     private Set<K> keySet;
     private Collection<V> values;
     private Set<Entry<K, V>> entrySet;
     private final double loadFactor;
     private final int resizeCoeff;
     private final int outside;
+    private final int migrationStep;
+    private final HashIndexing indexing;
+    // число пар с каждым значением, null -- индекс значений выключен, см. enableValueIndex
+    private Map<Object, Integer> valueCounts;
+    // счётчики для stats(), меняются только при рехешировании
+    private long growCount;
+    private long shrinkCount;
+    private long rehashNanos;
 
     public DictionaryImpl() {
         this(0.75, 2, 10);
     }
 
     public DictionaryImpl(double loadFactor, int resizeCoeff, int outside) {
+        this(loadFactor, resizeCoeff, outside, 0);
+    }
+
+    public DictionaryImpl(double loadFactor, int resizeCoeff, int outside, int migrationStep) {
+        this(loadFactor, resizeCoeff, outside, migrationStep, HashIndexing.MODULO);
+    }
+
+    /*
+     * migrationStep > 0 включает постепенное рехеширование: старая и новая таблицы живут одновременно,
+     *   и каждый вызов containsKey/get/put/remove переносит из старой в новую не меньше migrationStep корзин --
+     *   столько, чтобы старая таблица опустела до следующего изменения размера
+     * migrationStep == 0 -- вся таблица перестраивается сразу
+     * indexing задаёт размер таблицы и способ выбора корзины по хешу, см. HashIndexing
+     */
+    public DictionaryImpl(double loadFactor, int resizeCoeff, int outside, int migrationStep,
+                          @NotNull HashIndexing indexing) {
+        if (migrationStep < 0) {
+            throw new IllegalArgumentException("migrationStep must be non-negative");
+        }
         this.loadFactor = loadFactor;
         this.resizeCoeff = resizeCoeff;
         this.outside = outside;
+        this.migrationStep = migrationStep;
+        this.indexing = indexing;
         preCapacity = 1;
         size = 0;
         capacity = updateCapacity(preCapacity);
         data = genArrayList(capacity);
     }
 
-    private static int updateCapacity(int preCap) {
-        return 6 * preCap + 1;
+    public static <K, V> @NotNull Dictionary<K, V> openAddressing() {
+        return new OpenAddressingDictionary<>();
+    }
+
+    public static <K, V> @NotNull Dictionary<K, V> openAddressing(double loadFactor) {
+        return new OpenAddressingDictionary<>(loadFactor);
+    }
+
+    private int updateCapacity(int preCap) {
+        return indexing.capacity(preCap);
     }
 
-    private List<MyLinkedList<AbstractMap.SimpleEntry<K, V>>> genArrayList(int newCapacity) {
-        List<MyLinkedList<AbstractMap.SimpleEntry<K, V>>> arrayList = new ArrayList<>(newCapacity);
+    /*
+     * Все корзины новой таблицы ссылаются на общий пустой список emptyBucket,
+     *   настоящий список создаётся при первой вставке в корзину
+     */
+    private List<AbstractCollection<HashEntry<K, V>>> genArrayList(int newCapacity) {
+        List<AbstractCollection<HashEntry<K, V>>> arrayList = new ArrayList<>(newCapacity);
         for (int i = 0; i < newCapacity; i++) {
-            arrayList.add(new MyLinkedList<>());
+            arrayList.add(emptyBucket);
         }
         return arrayList;
     }
 
+    private int indexFor(int hash, int cap) {
+        return indexing.index(hash, cap);
+    }
+
+    private void addToBucket(List<AbstractCollection<HashEntry<K, V>>> table, int ind,
+                             HashEntry<K, V> entry) {
+        AbstractCollection<HashEntry<K, V>> bucket = table.get(ind);
+        if (bucket == emptyBucket) {
+            bucket = new UnrolledLinkedList<>();
+            table.set(ind, bucket);
+        }
+        bucket.add(entry);
+        if (bucket.size() > TREEIFY_THRESHOLD && !(bucket instanceof TreeBucket)
+                && table.size() >= MIN_TREEIFY_CAPACITY) {
+            table.set(ind, new TreeBucket<>(bucket));
+        }
+    }
+
+    /*
+     * Поиск не создаёт объектов: список обходится по массивам блоков, а не итератором,
+     *   и equals вызывается только для пар с тем же хешем
+     */
+    private static <K, V> HashEntry<K, V> findEntry(
+            AbstractCollection<HashEntry<K, V>> bucket, Object key, int hash) {
+        if (bucket instanceof TreeBucket) {
+            return ((TreeBucket<K, V>) bucket).find(key, hash);
+        }
+        UnrolledLinkedList<HashEntry<K, V>> list = (UnrolledLinkedList<HashEntry<K, V>>) bucket;
+        int index = indexIn(list.items, list.count, key, hash);
+        if (index >= 0) {
+            return entryAt(list.items, index);
+        }
+        for (UnrolledLinkedList.Chunk chunk = list.first; chunk != null; chunk = chunk.next) {
+            index = indexIn(chunk.items, chunk.count, key, hash);
+            if (index >= 0) {
+                return entryAt(chunk.items, index);
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> HashEntry<K, V> entryAt(Object[] items, int index) {
+        return (HashEntry<K, V>) items[index];
+    }
+
+    private static int indexIn(Object[] items, int count, Object key, int hash) {
+        for (int i = 0; i < count; i++) {
+            HashEntry<?, ?> element = (HashEntry<?, ?>) items[i];
+            if (element.hash == hash && key.equals(element.getKey())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // удаляет пару с ключом key из корзины-списка, null если её там нет
+    private static <K, V> HashEntry<K, V> removeFromList(
+            UnrolledLinkedList<HashEntry<K, V>> list, Object key, int hash) {
+        int index = indexIn(list.items, list.count, key, hash);
+        if (index >= 0) {
+            HashEntry<K, V> element = entryAt(list.items, index);
+            list.removeAt(null, index);
+            return element;
+        }
+        for (UnrolledLinkedList.Chunk chunk = list.first; chunk != null; chunk = chunk.next) {
+            index = indexIn(chunk.items, chunk.count, key, hash);
+            if (index >= 0) {
+                HashEntry<K, V> element = entryAt(chunk.items, index);
+                list.removeAt(chunk, index);
+                return element;
+            }
+        }
+        return null;
+    }
+
     @Override
     public int size() {
         return size;
@@ -52,20 +199,57 @@ public class DictionaryImpl<K, V> implements Dictionary<K, V> {
         return size == 0;
     }
 
+    private HashEntry<K, V> getEntry(Object key) {
+        migrateStep();
+        int hash = key.hashCode();
+        List<AbstractCollection<HashEntry<K, V>>> table = tableFor(hash);
+        return findEntry(table.get(indexIn(table, hash)), key, hash);
+    }
+
     @Override
     public boolean containsKey(Object key) {
-        int ind = Math.abs(key.hashCode() % capacity);
-        for (Entry<K, V> element : data.get(ind)) {
-            if (key.equals(element.getKey())) {
-                return true;
-            }
+        return getEntry(key) != null;
+    }
+
+    /*
+     * Включает индекс значений: для каждого значения хранится число пар с ним,
+     *   после чего containsValue работает за O(1) в среднем вместо обхода всей таблицы
+     * Индекс поддерживают put, remove, clear, удаление через итераторы и setValue у пар из entrySet,
+     *   зато каждое изменение значения стоит дополнительной операции с HashMap
+     */
+    public void enableValueIndex() {
+        if (valueCounts != null) {
+            return;
+        }
+        valueCounts = new HashMap<>();
+        for (Iterator<Entry<K, V>> it = entryIterator(); it.hasNext(); ) {
+            countValue(it.next().getValue());
+        }
+    }
+
+    public boolean isValueIndexEnabled() {
+        return valueCounts != null;
+    }
+
+    private void countValue(V value) {
+        if (valueCounts != null) {
+            valueCounts.merge(value, 1, Integer::sum);
+        }
+    }
+
+    private void uncountValue(V value) {
+        if (valueCounts != null) {
+            valueCounts.computeIfPresent(value, (v, count) -> count == 1 ? null : count - 1);
         }
-        return false;
     }
 
     @Override
     public boolean containsValue(Object value) {
-        for (MyLinkedList<AbstractMap.SimpleEntry<K, V>> list : data) {
+        if (valueCounts != null) {
+            return valueCounts.containsKey(value);
+        }
+        completeRehashing();
+        for (AbstractCollection<HashEntry<K, V>> list : data) {
             for (Entry<K, V> element : list) {
                 if (value.equals(element.getValue())) {
                     return true;
@@ -75,84 +259,595 @@ public class DictionaryImpl<K, V> implements Dictionary<K, V> {
         return false;
     }
 
-    private MyLinkedList<AbstractMap.SimpleEntry<K, V>> getDataList(Object key) {
-        return data.get(Math.abs(key.hashCode() % capacity));
+    /*
+     * Таблица, в которой должна лежать пара с хешем hash: во время постепенного рехеширования
+     *   это старая таблица, если нужная корзина ещё не перенесена
+     */
+    private List<AbstractCollection<HashEntry<K, V>>> tableFor(int hash) {
+        if (oldData != null && indexFor(hash, oldCapacity) >= migrated) {
+            return oldData;
+        }
+        return data;
+    }
+
+    private int indexIn(List<AbstractCollection<HashEntry<K, V>>> table, int hash) {
+        return indexFor(hash, table == data ? capacity : oldCapacity);
     }
 
     @Override
     public V get(Object key) {
-        MyLinkedList<AbstractMap.SimpleEntry<K, V>> list = getDataList(key);
-        for (Entry<K, V> element : list) {
-            if (key.equals(element.getKey())) {
-                return element.getValue();
-            }
+        HashEntry<K, V> element = getEntry(key);
+        if (element == null) {
+            return null;
         }
-        return null;
+        afterAccess(element);
+        return element.getValue();
     }
 
     @Override
     public V put(@NotNull K key, V value) {
-        MyLinkedList<AbstractMap.SimpleEntry<K, V>> list = getDataList(key);
-        for (Entry<K, V> element : list) {
-            if (key.equals(element.getKey())) {
-                V oldValue = element.getValue();
-                element.setValue(value);
-                return oldValue;
-            }
+        migrateStep();
+        int hash = key.hashCode();
+        List<AbstractCollection<HashEntry<K, V>>> table = tableFor(hash);
+        int ind = indexIn(table, hash);
+        HashEntry<K, V> element = findEntry(table.get(ind), key, hash);
+        if (element != null) {
+            V oldValue = element.getValue();
+            element.setValue(value);
+            uncountValue(oldValue);
+            countValue(value);
+            afterAccess(element);
+            return oldValue;
         }
-        list.add(new AbstractMap.SimpleEntry<>(key, value));
+        addToBucket(table, ind, newEntry(hash, key, value));
+        countValue(value);
         size++;
         if (size > capacity * loadFactor + outside) {
-            rehashing(true);
+            resize(preCapacity * resizeCoeff);
         }
+        afterInsertion();
         return null;
     }
 
     @Override
     public V remove(Object key) {
-        MyLinkedList<AbstractMap.SimpleEntry<K, V>> list = getDataList(key);
-        for (Iterator<AbstractMap.SimpleEntry<K, V>> it = list.iterator(); it.hasNext(); ) {
-            AbstractMap.SimpleEntry<K, V> element = it.next();
-            if (key.equals(element.getKey())) {
-                V oldValue = element.getValue();
-                it.remove();
-                size--;
-                if (size < capacity * loadFactor / resizeCoeff - outside) {
-                    rehashing(false);
-                }
-                return oldValue;
+        HashEntry<K, V> element = removeWithoutResize(key);
+        if (element == null) {
+            return null;
+        }
+        shrinkIfSparse();
+        afterRemoval(element);
+        return element.getValue();
+    }
+
+    // удаляет пару из корзины, но не уменьшает таблицу и не вызывает afterRemoval
+    private HashEntry<K, V> removeWithoutResize(Object key) {
+        migrateStep();
+        int hash = key.hashCode();
+        List<AbstractCollection<HashEntry<K, V>>> table = tableFor(hash);
+        int ind = indexIn(table, hash);
+        AbstractCollection<HashEntry<K, V>> bucket = table.get(ind);
+        HashEntry<K, V> element;
+        if (bucket instanceof TreeBucket) {
+            element = ((TreeBucket<K, V>) bucket).find(key, hash);
+            if (element == null) {
+                return null;
+            }
+            ((TreeBucket<K, V>) bucket).removeEntry(element);
+            if (bucket.size() < UNTREEIFY_THRESHOLD) {
+                UnrolledLinkedList<HashEntry<K, V>> list = new UnrolledLinkedList<>();
+                list.addAll(bucket);
+                table.set(ind, list);
+            }
+        } else {
+            element = removeFromList((UnrolledLinkedList<HashEntry<K, V>>) bucket, key, hash);
+            if (element == null) {
+                return null;
             }
         }
-        return null;
+        size--;
+        uncountValue(element.getValue());
+        return element;
+    }
+
+    /*
+     * Точки расширения для наследников из этого пакета (см. LinkedDictionary):
+     *   newEntry создаёт пару для нового ключа, after* вызываются после обращения к существующей паре
+     *   через get/put, после вставки новой пары и после удаления пары любым способом,
+     *   entryIterator задаёт порядок обхода keySet/values/entrySet
+     */
+    HashEntry<K, V> newEntry(int hash, K key, V value) {
+        return new HashEntry<>(hash, key, value);
+    }
+
+    void afterAccess(HashEntry<K, V> entry) {
+    }
+
+    void afterInsertion() {
+    }
+
+    void afterRemoval(HashEntry<K, V> entry) {
+    }
+
+    Iterator<Entry<K, V>> entryIterator() {
+        return new EntrySetIterator();
+    }
+
+    // порядок и способ разбиения keySet/values/entrySet для потоков и forEachParallel/reduceParallel
+    Spliterator<Entry<K, V>> entrySpliterator() {
+        completeRehashing();
+        return new BucketSpliterator(0, data.size(), size, true);
+    }
+
+    /*
+     * Общее правило уменьшения для remove и removeAll: таблица делится на resizeCoeff,
+     *   пока пар меньше порога уменьшения, но preCapacity не опускается ниже 1
+     */
+    private void shrinkIfSparse() {
+        if (resizeCoeff < 2) {
+            return;
+        }
+        int newPreCapacity = preCapacity;
+        while (newPreCapacity / resizeCoeff > 0
+                && size < updateCapacity(newPreCapacity) * loadFactor / resizeCoeff - outside) {
+            newPreCapacity /= resizeCoeff;
+        }
+        if (newPreCapacity != preCapacity) {
+            resize(newPreCapacity);
+        }
     }
 
-    private void rehashing(boolean more) {
-        if (more) {
-            preCapacity *= resizeCoeff;
+    private void resize(int newPreCapacity) {
+        completeRehashing();
+        long start = System.nanoTime();
+        if (newPreCapacity > preCapacity) {
+            growCount++;
         } else {
-            preCapacity /= resizeCoeff;
+            shrinkCount++;
         }
+        preCapacity = newPreCapacity;
+        oldData = data;
+        oldCapacity = capacity;
+        migrated = 0;
         capacity = updateCapacity(preCapacity);
-        List<MyLinkedList<AbstractMap.SimpleEntry<K, V>>> oldData = data;
         data = genArrayList(capacity);
-        size = 0;
-        for (MyLinkedList<AbstractMap.SimpleEntry<K, V>> list : oldData) {
-            for (Entry<K, V> element : list) {
-                put(element.getKey(), element.getValue());
+        currentStep = migrationStep == 0 ? 0 : Math.max(migrationStep, stepBeforeNextResize());
+        rehashNanos += System.nanoTime() - start;
+        if (migrationStep == 0) {
+            completeRehashing();
+        }
+    }
+
+    /*
+     * Следующий resize начинается с completeRehashing, поэтому перенос должен закончиться раньше:
+     *   до ближайшего порога (роста или уменьшения) остаётся не меньше operations операций,
+     *   и за каждую переносится ceil(oldCapacity / operations) корзин
+     */
+    private int stepBeforeNextResize() {
+        double toGrow = capacity * loadFactor + outside - size;
+        double toShrink = size - (capacity * loadFactor / resizeCoeff - outside);
+        long operations = Math.max(1, (long) Math.min(toGrow, toShrink));
+        return (int) Math.min(oldCapacity, (oldCapacity + operations - 1) / operations);
+    }
+
+    private void migrateStep() {
+        if (oldData == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < currentStep && migrated < oldCapacity; i++) {
+            moveBucket(oldData.get(migrated++));
+        }
+        if (migrated == oldCapacity) {
+            oldData = null;
+        }
+        rehashNanos += System.nanoTime() - start;
+    }
+
+    private void completeRehashing() {
+        if (oldData == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        while (migrated < oldCapacity) {
+            moveBucket(oldData.get(migrated++));
+        }
+        oldData = null;
+        rehashNanos += System.nanoTime() - start;
+    }
+
+    private void moveBucket(AbstractCollection<HashEntry<K, V>> bucket) {
+        for (HashEntry<K, V> element : bucket) {
+            addToBucket(data, indexFor(element.hash, capacity), element);
+        }
+    }
+
+    /*
+     * Гистограмма длин корзин: result[i] -- число корзин, в которых лежит ровно i пар
+     */
+    public int[] bucketLengthHistogram() {
+        completeRehashing();
+        int maxLength = 0;
+        for (AbstractCollection<HashEntry<K, V>> list : data) {
+            maxLength = Math.max(maxLength, list.size());
+        }
+        int[] histogram = new int[maxLength + 1];
+        for (AbstractCollection<HashEntry<K, V>> list : data) {
+            histogram[list.size()]++;
+        }
+        return histogram;
+    }
+
+    /*
+     * Снимок показателей словаря, см. DictionaryStats
+     * Счётчики обновляются только при рехешировании, а длины корзин считаются здесь за O(capacity),
+     *   поэтому сбор статистики ничего не стоит, пока stats() не вызывают
+     * В отличие от bucketLengthHistogram не завершает постепенное рехеширование и не меняет словарь
+     */
+    public @NotNull DictionaryStats stats() {
+        List<AbstractCollection<HashEntry<K, V>>> table = data;
+        List<AbstractCollection<HashEntry<K, V>>> old = oldData;
+        int[] counts = new int[TREEIFY_THRESHOLD + 2];
+        int maxLength = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            List<AbstractCollection<HashEntry<K, V>>> current = pass == 0 ? table : old;
+            if (current == null) {
+                continue;
+            }
+            for (int i = pass == 0 ? 0 : migrated; i < current.size(); i++) {
+                int length = current.get(i).size();
+                if (length >= counts.length) {
+                    counts = Arrays.copyOf(counts, Math.max(length + 1, 2 * counts.length));
+                }
+                counts[length]++;
+                maxLength = Math.max(maxLength, length);
+            }
+        }
+        return new DictionaryStats(size, capacity, loadFactor, Arrays.copyOf(counts, maxLength + 1),
+                growCount, shrinkCount, rehashNanos, old != null);
+    }
+
+    /*
+     * Регистрирует в платформенном MBeanServer бин с показателями stats() под именем
+     *   ru.hse.java.util:type=DictionaryImpl,name=<name>
+     * Показатели длин корзин бин отдаёт из снимка не старше секунды, остальные -- текущие
+     * Значения читаются из другого потока без синхронизации и могут быть неточными во время изменений
+     * Бин держит ссылку на словарь: его нужно снять через MBeanServer.unregisterMBean по возвращённому имени
+     */
+    public @NotNull ObjectName registerStatsMBean(@NotNull String name) throws JMException {
+        ObjectName objectName = new ObjectName("ru.hse.java.util:type=DictionaryImpl,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(
+                new StandardMBean(new LiveStats(), DictionaryStatsMXBean.class, true), objectName);
+        return objectName;
+    }
+
+    /*
+     * Счётчики и размеры читаются прямо из полей словаря за O(1)
+     * Длины корзин требуют обхода всей таблицы, поэтому берутся из снимка stats(), который обновляется
+     *   не чаще раза в SNAPSHOT_NANOS: опрос всех атрибутов разом обходит таблицу не больше одного раза
+     */
+    private class LiveStats implements DictionaryStatsMXBean {
+        private static final long SNAPSHOT_NANOS = 1_000_000_000L;
+
+        private DictionaryStats snapshot;
+        private long snapshotTime;
+
+        private synchronized DictionaryStats bucketStats() {
+            long now = System.nanoTime();
+            if (snapshot == null || now - snapshotTime >= SNAPSHOT_NANOS) {
+                snapshot = stats();
+                snapshotTime = now;
+            }
+            return snapshot;
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public int getCapacity() {
+            return capacity;
+        }
+
+        @Override
+        public double getLoadFactor() {
+            return loadFactor;
+        }
+
+        @Override
+        public double getLoad() {
+            int currentCapacity = capacity;
+            return currentCapacity == 0 ? 0 : (double) size / currentCapacity;
+        }
+
+        @Override
+        public int getMaxBucketLength() {
+            return bucketStats().getMaxBucketLength();
+        }
+
+        @Override
+        public double getAverageBucketLength() {
+            return bucketStats().getAverageBucketLength();
+        }
+
+        @Override
+        public int[] getBucketLengthHistogram() {
+            return bucketStats().getBucketLengthHistogram();
+        }
+
+        @Override
+        public long getGrowCount() {
+            return growCount;
+        }
+
+        @Override
+        public long getShrinkCount() {
+            return shrinkCount;
+        }
+
+        @Override
+        public long getRehashTimeNanos() {
+            return rehashNanos;
+        }
+
+        @Override
+        public boolean isRehashing() {
+            return oldData != null;
+        }
+    }
+
+    /*
+     * Параллельный обход на ForkJoinPool (по умолчанию -- общем): пары делятся по диапазонам корзин,
+     *   пока на задачу приходится больше ~size / (4 * parallelism) пар
+     * action может вызываться из разных потоков одновременно; менять словарь во время обхода нельзя
+     */
+    public void forEachParallel(@NotNull BiConsumer<? super K, ? super V> action) {
+        forEachParallel(ForkJoinPool.commonPool(), action);
+    }
+
+    public void forEachParallel(@NotNull ForkJoinPool pool, @NotNull BiConsumer<? super K, ? super V> action) {
+        pool.invoke(new ForEachTask<>(entrySpliterator(), splitThreshold(pool), action));
+    }
+
+    /*
+     * Свёртка transformer(key, value) всех пар через reducer, порядок применения reducer не определён
+     * Результаты transformer, равные null, пропускаются; для пустого словаря результат -- null
+     */
+    public <R> R reduceParallel(@NotNull BiFunction<? super K, ? super V, ? extends R> transformer,
+                                @NotNull BinaryOperator<R> reducer) {
+        return reduceParallel(ForkJoinPool.commonPool(), transformer, reducer);
+    }
+
+    public <R> R reduceParallel(@NotNull ForkJoinPool pool,
+                                @NotNull BiFunction<? super K, ? super V, ? extends R> transformer,
+                                @NotNull BinaryOperator<R> reducer) {
+        return pool.invoke(new ReduceTask<>(entrySpliterator(), splitThreshold(pool), transformer, reducer));
+    }
+
+    private long splitThreshold(ForkJoinPool pool) {
+        return Math.max(1, size / (4L * pool.getParallelism()));
+    }
+
+    private static class ForEachTask<K, V> extends RecursiveAction {
+        private final Spliterator<Entry<K, V>> spliterator;
+        private final long threshold;
+        private final BiConsumer<? super K, ? super V> action;
+
+        private ForEachTask(Spliterator<Entry<K, V>> spliterator, long threshold,
+                            BiConsumer<? super K, ? super V> action) {
+            this.spliterator = spliterator;
+            this.threshold = threshold;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            List<ForEachTask<K, V>> forked = new ArrayList<>();
+            Spliterator<Entry<K, V>> prefix;
+            while (spliterator.estimateSize() > threshold && (prefix = spliterator.trySplit()) != null) {
+                ForEachTask<K, V> task = new ForEachTask<>(prefix, threshold, action);
+                task.fork();
+                forked.add(task);
+            }
+            spliterator.forEachRemaining(entry -> action.accept(entry.getKey(), entry.getValue()));
+            for (ForEachTask<K, V> task : forked) {
+                task.join();
             }
         }
     }
 
+    private static class ReduceTask<K, V, R> extends RecursiveTask<R> {
+        private final Spliterator<Entry<K, V>> spliterator;
+        private final long threshold;
+        private final BiFunction<? super K, ? super V, ? extends R> transformer;
+        private final BinaryOperator<R> reducer;
+        private R result;
+
+        private ReduceTask(Spliterator<Entry<K, V>> spliterator, long threshold,
+                           BiFunction<? super K, ? super V, ? extends R> transformer,
+                           BinaryOperator<R> reducer) {
+            this.spliterator = spliterator;
+            this.threshold = threshold;
+            this.transformer = transformer;
+            this.reducer = reducer;
+        }
+
+        private void accumulate(R value) {
+            if (value != null) {
+                result = result == null ? value : reducer.apply(result, value);
+            }
+        }
+
+        @Override
+        protected R compute() {
+            List<ReduceTask<K, V, R>> forked = new ArrayList<>();
+            Spliterator<Entry<K, V>> prefix;
+            while (spliterator.estimateSize() > threshold && (prefix = spliterator.trySplit()) != null) {
+                ReduceTask<K, V, R> task = new ReduceTask<>(prefix, threshold, transformer, reducer);
+                task.fork();
+                forked.add(task);
+            }
+            spliterator.forEachRemaining(entry -> accumulate(transformer.apply(entry.getKey(), entry.getValue())));
+            for (ReduceTask<K, V, R> task : forked) {
+                accumulate(task.join());
+            }
+            return result;
+        }
+    }
+
+    // true, если идёт постепенное рехеширование и старая таблица ещё не перенесена полностью
+    public boolean isRehashing() {
+        return oldData != null;
+    }
+
+    /*
+     * Сразу увеличивает таблицу до размера, при котором expectedSize пар поместятся без рехеширования
+     * Размер выбирается из тех же, что получились бы последовательными рехешированиями при вставке
+     */
+    private void ensureCapacity(int expectedSize) {
+        if (resizeCoeff < 2 || loadFactor <= 0) {
+            return;
+        }
+        int newPreCapacity = preCapacity;
+        while (expectedSize > updateCapacity(newPreCapacity) * loadFactor + outside
+                && newPreCapacity <= Integer.MAX_VALUE / 8 / resizeCoeff) {
+            newPreCapacity *= resizeCoeff;
+        }
+        if (newPreCapacity != preCapacity) {
+            resize(newPreCapacity);
+        }
+    }
+
     @Override
     public void putAll(@NotNull Map<? extends K, ? extends V> m) {
+        ensureCapacity(size + m.size());
         for (Map.Entry<? extends K, ? extends V> element : m.entrySet()) {
             put(element.getKey(), element.getValue());
         }
     }
 
+    /*
+     * Записывает пары в канал в компактном бинарном виде:
+     *   [int MAGIC][varint версия формата][varint число пар], затем для каждой пары
+     *   [varint длина ключа][ключ][varint длина значения + 1, 0 для null][значение]
+     * Ключи и значения переводятся в байты переданными сериализаторами, пары идут в порядке итерации
+     * Канал не закрывается
+     */
+    public void writeTo(@NotNull WritableByteChannel channel, @NotNull ByteSerializer<? super K> keySerializer,
+                        @NotNull ByteSerializer<? super V> valueSerializer) throws IOException {
+        BinaryChannels.Output output = new BinaryChannels.Output(channel);
+        output.writeInt(MAGIC);
+        output.writeVarint(FORMAT_VERSION);
+        output.writeVarint(size);
+        for (Iterator<Entry<K, V>> it = entryIterator(); it.hasNext(); ) {
+            Entry<K, V> element = it.next();
+            byte[] key = keySerializer.toBytes(element.getKey());
+            output.writeVarint(key.length);
+            output.writeBytes(key);
+            V value = element.getValue();
+            if (value == null) {
+                output.writeVarint(0);
+            } else {
+                byte[] bytes = valueSerializer.toBytes(value);
+                output.writeVarint(bytes.length + 1);
+                output.writeBytes(bytes);
+            }
+        }
+        output.flush();
+    }
+
+    /*
+     * Добавляет в словарь пары, записанные writeTo, читая канал потоково до конца записи
+     * Таблица заранее увеличивается до нужного размера по числу пар из заголовка,
+     *   пары вставляются сразу, без промежуточного Map
+     * IOException, если данные не в этом формате; EOFException, если поток оборвался раньше
+     */
+    public void readFrom(@NotNull ReadableByteChannel channel, @NotNull ByteSerializer<? extends K> keySerializer,
+                         @NotNull ByteSerializer<? extends V> valueSerializer) throws IOException {
+        BinaryChannels.Input input = new BinaryChannels.Input(channel);
+        if (input.readInt() != MAGIC) {
+            throw new IOException("not a DictionaryImpl stream");
+        }
+        int version = input.readVarint();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("unsupported DictionaryImpl stream version " + version);
+        }
+        int count = input.readVarint();
+        if (count < 0) {
+            throw new IOException("corrupted DictionaryImpl stream");
+        }
+        // число пар -- из потока и может быть испорчено: заранее место готовится лишь под часть из них
+        ensureCapacity((int) Math.min(Integer.MAX_VALUE, (long) size + Math.min(count, MAX_PRESIZED_PAIRS)));
+        for (int i = 0; i < count; i++) {
+            int keyLength = input.readVarint();
+            if (keyLength < 0) {
+                throw new IOException("corrupted DictionaryImpl stream");
+            }
+            K key = keySerializer.fromBytes(input.readBytes(keyLength));
+            int valueLength = input.readVarint() - 1;
+            if (valueLength < -1) {
+                throw new IOException("corrupted DictionaryImpl stream");
+            }
+            V value = valueLength < 0 ? null : valueSerializer.fromBytes(input.readBytes(valueLength));
+            put(key, value);
+        }
+    }
+
+    public static <K, V> @NotNull DictionaryImpl<K, V> read(@NotNull ReadableByteChannel channel,
+                                                           @NotNull ByteSerializer<? extends K> keySerializer,
+                                                           @NotNull ByteSerializer<? extends V> valueSerializer)
+            throws IOException {
+        DictionaryImpl<K, V> dictionary = new DictionaryImpl<>();
+        dictionary.readFrom(channel, keySerializer, valueSerializer);
+        return dictionary;
+    }
+
+    /*
+     * Результат -- LinkedDictionary с теми же параметрами таблицы, сразу нужного размера,
+     *   пары в нём идут в порядке обхода keys
+     * Для LinkedDictionary с accessOrder найденные пары считаются прочитанными, как при get
+     */
+    @Override
+    public @NotNull Map<K, V> getAll(@NotNull Collection<? extends K> keys) {
+        List<HashEntry<K, V>> found = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            HashEntry<K, V> element = getEntry(key);
+            if (element != null) {
+                afterAccess(element);
+                found.add(element);
+            }
+        }
+        DictionaryImpl<K, V> result = new LinkedDictionary<>(loadFactor, resizeCoeff, outside, indexing);
+        result.ensureCapacity(found.size());
+        for (HashEntry<K, V> element : found) {
+            result.put(element.getKey(), element.getValue());
+        }
+        return result;
+    }
+
+    // таблица уменьшается не больше одного раза, уже после всех удалений
+    @Override
+    public boolean removeAll(@NotNull Collection<?> keys) {
+        boolean changed = false;
+        for (Object key : keys) {
+            HashEntry<K, V> element = removeWithoutResize(key);
+            if (element != null) {
+                changed = true;
+                afterRemoval(element);
+            }
+        }
+        shrinkIfSparse();
+        return changed;
+    }
+
     @Override
     public void clear() {
-        data.clear();
+        oldData = null;
+        if (valueCounts != null) {
+            valueCounts.clear();
+        }
         size = 0;
         preCapacity = 1;
         capacity = updateCapacity(preCapacity);
@@ -165,7 +860,12 @@ public class DictionaryImpl<K, V> implements Dictionary<K, V> {
             keySet = new AbstractSet<>() {
                 @Override
                 public @NotNull Iterator<K> iterator() {
-                    return new SetIterator(new EntrySetIterator());
+                    return new SetIterator(entryIterator());
+                }
+
+                @Override
+                public Spliterator<K> spliterator() {
+                    return new MappingSpliterator<>(entrySpliterator(), Entry::getKey, 0);
                 }
 
                 @Override
@@ -208,7 +908,13 @@ public class DictionaryImpl<K, V> implements Dictionary<K, V> {
             values = new AbstractCollection<>() {
                 @Override
                 public @NotNull Iterator<V> iterator() {
-                    return new CollectionIterator(new EntrySetIterator());
+                    return new CollectionIterator(entryIterator());
+                }
+
+                @Override
+                public Spliterator<V> spliterator() {
+                    return new MappingSpliterator<>(entrySpliterator(), Entry::getValue,
+                            Spliterator.DISTINCT | Spliterator.NONNULL);
                 }
 
                 @Override
@@ -249,7 +955,16 @@ public class DictionaryImpl<K, V> implements Dictionary<K, V> {
             entrySet = new AbstractSet<>() {
                 @Override
                 public @NotNull Iterator<Entry<K, V>> iterator() {
-                    return new EntrySetIterator();
+                    Iterator<Entry<K, V>> iterator = entryIterator();
+                    return valueCounts == null ? iterator : new IndexedEntryIterator(iterator);
+                }
+
+                @Override
+                public Spliterator<Entry<K, V>> spliterator() {
+                    if (valueCounts == null) {
+                        return entrySpliterator();
+                    }
+                    return new MappingSpliterator<>(entrySpliterator(), IndexedEntry::new, 0);
                 }
 
                 @Override
@@ -263,9 +978,11 @@ public class DictionaryImpl<K, V> implements Dictionary<K, V> {
 
     private class EntrySetIterator implements Iterator<Entry<K, V>> {
         private int ind = 0;
-        private Iterator<AbstractMap.SimpleEntry<K, V>> element;
+        private Iterator<HashEntry<K, V>> element;
+        private HashEntry<K, V> last;
 
         public EntrySetIterator() {
+            completeRehashing();
             element = data.get(0).iterator();
             if (!element.hasNext()) {
                 nextInd();
@@ -304,13 +1021,190 @@ public class DictionaryImpl<K, V> implements Dictionary<K, V> {
             if (!element.hasNext()) {
                 throw new NoSuchElementException();
             }
-            return element.next();
+            last = element.next();
+            return last;
         }
 
         @Override
         public void remove() {
             element.remove();
             size--;
+            uncountValue(last.getValue());
+            afterRemoval(last);
+        }
+    }
+
+    /*
+     * Пары entrySet при включённом индексе значений: setValue обновляет индекс
+     */
+    private class IndexedEntryIterator implements Iterator<Entry<K, V>> {
+        private final Iterator<Entry<K, V>> delegateIterator;
+
+        private IndexedEntryIterator(Iterator<Entry<K, V>> delegateIterator) {
+            this.delegateIterator = delegateIterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegateIterator.hasNext();
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            return new IndexedEntry(delegateIterator.next());
+        }
+
+        @Override
+        public void remove() {
+            delegateIterator.remove();
+        }
+    }
+
+    /*
+     * Обходит корзины с индексами [ind, fence), делится пополам по диапазону корзин
+     * Точный размер известен только до первого разбиения, дальше -- оценка как половина родительской
+     */
+    private class BucketSpliterator implements Spliterator<Entry<K, V>> {
+        private int ind;
+        private final int fence;
+        private long estimate;
+        private boolean exact;
+        private Iterator<HashEntry<K, V>> current;
+
+        private BucketSpliterator(int ind, int fence, long estimate, boolean exact) {
+            this.ind = ind;
+            this.fence = fence;
+            this.estimate = estimate;
+            this.exact = exact;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+            while (current == null || !current.hasNext()) {
+                if (ind >= fence) {
+                    return false;
+                }
+                AbstractCollection<HashEntry<K, V>> bucket = data.get(ind++);
+                current = bucket.isEmpty() ? null : bucket.iterator();
+            }
+            action.accept(current.next());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Entry<K, V>> action) {
+            if (current != null) {
+                current.forEachRemaining(action);
+                current = null;
+            }
+            for (; ind < fence; ind++) {
+                for (HashEntry<K, V> element : data.get(ind)) {
+                    action.accept(element);
+                }
+            }
+        }
+
+        @Override
+        public Spliterator<Entry<K, V>> trySplit() {
+            int mid = (ind + fence) >>> 1;
+            if (mid <= ind) {
+                return null;
+            }
+            estimate >>>= 1;
+            exact = false;
+            BucketSpliterator prefix = new BucketSpliterator(ind, mid, estimate, false);
+            ind = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.DISTINCT | Spliterator.NONNULL | (exact ? Spliterator.SIZED : 0);
+        }
+    }
+
+    private static class MappingSpliterator<T, R> implements Spliterator<R> {
+        private final Spliterator<T> delegate;
+        private final Function<? super T, ? extends R> mapper;
+        private final int removedCharacteristics;
+
+        private MappingSpliterator(Spliterator<T> delegate, Function<? super T, ? extends R> mapper,
+                                   int removedCharacteristics) {
+            this.delegate = delegate;
+            this.mapper = mapper;
+            this.removedCharacteristics = removedCharacteristics;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            return delegate.tryAdvance(element -> action.accept(mapper.apply(element)));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super R> action) {
+            delegate.forEachRemaining(element -> action.accept(mapper.apply(element)));
+        }
+
+        @Override
+        public Spliterator<R> trySplit() {
+            Spliterator<T> prefix = delegate.trySplit();
+            return prefix == null ? null : new MappingSpliterator<>(prefix, mapper, removedCharacteristics);
+        }
+
+        @Override
+        public long estimateSize() {
+            return delegate.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return delegate.characteristics() & ~removedCharacteristics;
+        }
+    }
+
+    private class IndexedEntry implements Entry<K, V> {
+        private final Entry<K, V> entry;
+
+        private IndexedEntry(Entry<K, V> entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public K getKey() {
+            return entry.getKey();
+        }
+
+        @Override
+        public V getValue() {
+            return entry.getValue();
+        }
+
+        @Override
+        public V setValue(V value) {
+            V oldValue = entry.setValue(value);
+            uncountValue(oldValue);
+            countValue(value);
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return entry.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return entry.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return entry.toString();
         }
     }
 }
@@ -0,0 +1,107 @@
+package ru.hse.java.util;
+
+import java.util.Arrays;
+
+/*
+ * Снимок состояния DictionaryImpl на момент вызова DictionaryImpl.stats()
+ * Счётчики рехеширований и время в нём копятся всё время жизни словаря, clear их не сбрасывает
+ * Длины корзин считаются по обеим таблицам, если идёт постепенное рехеширование
+ */
+public final class DictionaryStats implements DictionaryStatsMXBean {
+    private final int size;
+    private final int capacity;
+    private final double loadFactor;
+    private final int[] histogram;
+    private final long growCount;
+    private final long shrinkCount;
+    private final long rehashTimeNanos;
+    private final boolean rehashing;
+
+    DictionaryStats(int size, int capacity, double loadFactor, int[] histogram,
+                    long growCount, long shrinkCount, long rehashTimeNanos, boolean rehashing) {
+        this.size = size;
+        this.capacity = capacity;
+        this.loadFactor = loadFactor;
+        this.histogram = histogram;
+        this.growCount = growCount;
+        this.shrinkCount = shrinkCount;
+        this.rehashTimeNanos = rehashTimeNanos;
+        this.rehashing = rehashing;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    // число корзин в текущей (новой, если идёт рехеширование) таблице
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public double getLoadFactor() {
+        return loadFactor;
+    }
+
+    // фактическое заполнение size / capacity, сравнивается с loadFactor
+    @Override
+    public double getLoad() {
+        return capacity == 0 ? 0 : (double) size / capacity;
+    }
+
+    @Override
+    public int getMaxBucketLength() {
+        return histogram.length - 1;
+    }
+
+    // средняя длина непустой корзины -- сколько пар в среднем просматривает поиск
+    @Override
+    public double getAverageBucketLength() {
+        long pairs = 0;
+        long buckets = 0;
+        for (int length = 1; length < histogram.length; length++) {
+            pairs += (long) length * histogram[length];
+            buckets += histogram[length];
+        }
+        return buckets == 0 ? 0 : (double) pairs / buckets;
+    }
+
+    // result[i] -- число корзин ровно с i парами
+    @Override
+    public int[] getBucketLengthHistogram() {
+        return histogram.clone();
+    }
+
+    @Override
+    public long getGrowCount() {
+        return growCount;
+    }
+
+    @Override
+    public long getShrinkCount() {
+        return shrinkCount;
+    }
+
+    // суммарное время перестройки таблиц, включая постепенный перенос корзин
+    @Override
+    public long getRehashTimeNanos() {
+        return rehashTimeNanos;
+    }
+
+    @Override
+    public boolean isRehashing() {
+        return rehashing;
+    }
+
+    @Override
+    public String toString() {
+        return "DictionaryStats{size=" + size + ", capacity=" + capacity + ", loadFactor=" + loadFactor
+                + ", load=" + getLoad() + ", maxBucketLength=" + getMaxBucketLength()
+                + ", averageBucketLength=" + getAverageBucketLength()
+                + ", histogram=" + Arrays.toString(histogram) + ", grows=" + growCount
+                + ", shrinks=" + shrinkCount + ", rehashTimeNanos=" + rehashTimeNanos
+                + ", rehashing=" + rehashing + "}";
+    }
+}
@@ -0,0 +1,28 @@
+package ru.hse.java.util;
+
+/*
+ * Показатели DictionaryImpl для JMX, см. DictionaryImpl.registerStatsMBean и DictionaryStats
+ */
+public interface DictionaryStatsMXBean {
+    int getSize();
+
+    int getCapacity();
+
+    double getLoadFactor();
+
+    double getLoad();
+
+    int getMaxBucketLength();
+
+    double getAverageBucketLength();
+
+    int[] getBucketLengthHistogram();
+
+    long getGrowCount();
+
+    long getShrinkCount();
+
+    long getRehashTimeNanos();
+
+    boolean isRehashing();
+}
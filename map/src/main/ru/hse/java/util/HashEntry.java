@@ -0,0 +1,16 @@
+package ru.hse.java.util;
+
+import java.util.AbstractMap;
+
+/*
+ * Пара DictionaryImpl вместе с хешем ключа: хеш считается один раз при вставке,
+ *   при поиске сначала сравниваются хеши и только при совпадении вызывается equals
+ */
+class HashEntry<K, V> extends AbstractMap.SimpleEntry<K, V> {
+    final int hash;
+
+    HashEntry(int hash, K key, V value) {
+        super(key, value);
+        this.hash = hash;
+    }
+}
@@ -0,0 +1,53 @@
+package ru.hse.java.util;
+
+/*
+ * Способ выбора корзины по хешу ключа в DictionaryImpl
+ */
+public enum HashIndexing {
+    /*
+     * Нечётный размер таблицы 6 * preCapacity + 1 и остаток от деления
+     * Одно целочисленное деление на каждую операцию
+     */
+    MODULO {
+        @Override
+        int capacity(int preCapacity) {
+            return 6 * preCapacity + 1;
+        }
+
+        @Override
+        int index(int hash, int capacity) {
+            return Math.abs(hash % capacity);
+        }
+    },
+
+    /*
+     * Размер таблицы -- степень двойки, индекс -- младшие биты перемешанного хеша
+     * Перемешивание (финализатор murmur3) раскидывает ключи с плохими младшими битами,
+     *   а вместо деления используется маска
+     */
+    POWER_OF_TWO {
+        @Override
+        int capacity(int preCapacity) {
+            int cap = Math.max(1, 8 * preCapacity);
+            return Integer.highestOneBit(cap) == cap ? cap : Integer.highestOneBit(cap) << 1;
+        }
+
+        @Override
+        int index(int hash, int capacity) {
+            return mix(hash) & (capacity - 1);
+        }
+    };
+
+    abstract int capacity(int preCapacity);
+
+    abstract int index(int hash, int capacity);
+
+    static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
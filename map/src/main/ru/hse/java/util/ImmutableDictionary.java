@@ -0,0 +1,235 @@
+package ru.hse.java.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/*
+ * Неизменяемая копия словаря для таблиц, которые читаются намного чаще, чем перестраиваются
+ * Ключи и значения лежат через один в общем массиве table, хеши ключей -- в hashes, без объектов на пару;
+ *   размер таблицы -- степень двойки, не меньше удвоенного числа пар, коллизии разрешаются линейным пробированием
+ * Все изменяющие методы бросают UnsupportedOperationException
+ */
+public final class ImmutableDictionary<K, V> implements Dictionary<K, V> {
+    private final Object[] table;
+    private final int[] hashes;
+    private final int mask;
+    private final int size;
+    private Set<K> keySet;
+    private Collection<V> values;
+    private Set<Entry<K, V>> entrySet;
+
+    private ImmutableDictionary(Map<? extends K, ? extends V> m) {
+        int capacity = 2;
+        while (capacity < 2 * m.size()) {
+            capacity <<= 1;
+        }
+        table = new Object[2 * capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        int count = 0;
+        for (Map.Entry<? extends K, ? extends V> element : m.entrySet()) {
+            K key = Objects.requireNonNull(element.getKey());
+            int hash = key.hashCode();
+            int i = slot(key, hash);
+            if (table[2 * i] == null) {
+                count++;
+            }
+            table[2 * i] = key;
+            table[2 * i + 1] = element.getValue();
+            hashes[i] = hash;
+        }
+        size = count;
+    }
+
+    public static <K, V> @NotNull ImmutableDictionary<K, V> copyOf(@NotNull Map<? extends K, ? extends V> m) {
+        if (m instanceof ImmutableDictionary) {
+            @SuppressWarnings("unchecked")
+            ImmutableDictionary<K, V> immutable = (ImmutableDictionary<K, V>) m;
+            return immutable;
+        }
+        return new ImmutableDictionary<>(m);
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    // ячейка с ключом key либо первая пустая ячейка на его пути пробирования
+    private int slot(Object key, int hash) {
+        for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+            Object k = table[2 * i];
+            if (k == null || (hashes[i] == hash && key.equals(k))) {
+                return i;
+            }
+        }
+    }
+
+    @Override
+    public @NotNull ImmutableDictionary<K, V> freeze() {
+        return this;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return table[2 * slot(key, key.hashCode())] != null;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (int i = 0; i < table.length; i += 2) {
+            if (table[i] != null && Objects.equals(value, table[i + 1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int i = slot(key, key.hashCode());
+        return (V) table[2 * i + 1];
+    }
+
+    @Override
+    public V put(K key, V value) {
+        throw new UnsupportedOperationException("ImmutableDictionary can't be changed");
+    }
+
+    @Override
+    public V remove(Object key) {
+        throw new UnsupportedOperationException("ImmutableDictionary can't be changed");
+    }
+
+    @Override
+    public void putAll(@NotNull Map<? extends K, ? extends V> m) {
+        throw new UnsupportedOperationException("ImmutableDictionary can't be changed");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("ImmutableDictionary can't be changed");
+    }
+
+    @Override
+    public boolean removeAll(@NotNull Collection<?> keys) {
+        throw new UnsupportedOperationException("ImmutableDictionary can't be changed");
+    }
+
+    @Override
+    public @NotNull Set<K> keySet() {
+        if (keySet == null) {
+            keySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<K> iterator() {
+                    return new TableIterator<>() {
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        K get(int i) {
+                            return (K) table[i];
+                        }
+                    };
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return keySet;
+    }
+
+    @Override
+    public @NotNull Collection<V> values() {
+        if (values == null) {
+            values = new AbstractCollection<>() {
+                @Override
+                public @NotNull Iterator<V> iterator() {
+                    return new TableIterator<>() {
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        V get(int i) {
+                            return (V) table[i + 1];
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return values;
+    }
+
+    @Override
+    public @NotNull Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<K, V>> iterator() {
+                    return new TableIterator<>() {
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        Entry<K, V> get(int i) {
+                            return new AbstractMap.SimpleImmutableEntry<>((K) table[i], (V) table[i + 1]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    // обход занятых ячеек; remove не поддерживается
+    private abstract class TableIterator<T> implements Iterator<T> {
+        private int next = advance(0);
+
+        private int advance(int i) {
+            while (i < table.length && table[i] == null) {
+                i += 2;
+            }
+            return i;
+        }
+
+        abstract T get(int i);
+
+        @Override
+        public boolean hasNext() {
+            return next < table.length;
+        }
+
+        @Override
+        public T next() {
+            if (next >= table.length) {
+                throw new NoSuchElementException();
+            }
+            T result = get(next);
+            next = advance(next + 2);
+            return result;
+        }
+    }
+}
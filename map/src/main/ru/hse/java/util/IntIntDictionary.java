@@ -0,0 +1,255 @@
+package ru.hse.java.util;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/*
+ * Хеш-таблица int -> int без упаковки ключей и значений
+ * Открытая адресация с линейным пробированием по массивам int[] ключей и значений,
+ *   состояние ячейки (пустая / занятая / удалённая) хранится в byte[]
+ * Для отсутствующего ключа get/put/remove возвращают defaultValue (по умолчанию 0)
+ */
+public class IntIntDictionary {
+    private static final byte FREE = 0;
+    private static final byte FULL = 1;
+    private static final byte REMOVED = 2;
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] keys;
+    private int[] values;
+    private byte[] states;
+    private int size;
+    private int used;
+    private final double loadFactor;
+    private final int defaultValue;
+
+    public IntIntDictionary() {
+        this(0.5, 0);
+    }
+
+    public IntIntDictionary(double loadFactor, int defaultValue) {
+        if (loadFactor <= 0 || loadFactor >= 1) {
+            throw new IllegalArgumentException("loadFactor must be in (0, 1)");
+        }
+        this.loadFactor = loadFactor;
+        this.defaultValue = defaultValue;
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        states = new byte[capacity];
+        used = size;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int find(int key) {
+        int mask = states.length - 1;
+        for (int i = hash(key) & mask; states[i] != FREE; i = (i + 1) & mask) {
+            if (states[i] == FULL && keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Индекс ячейки с ключом key, либо ~индекс ячейки, в которую его нужно вставить
+     */
+    private int slotFor(int key) {
+        int mask = states.length - 1;
+        int free = -1;
+        int i = hash(key) & mask;
+        for (; states[i] != FREE; i = (i + 1) & mask) {
+            if (states[i] == REMOVED) {
+                if (free < 0) {
+                    free = i;
+                }
+            } else if (keys[i] == key) {
+                return i;
+            }
+        }
+        if (free < 0) {
+            free = i;
+            used++;
+        }
+        return ~free;
+    }
+
+    private int insertAt(int ind, int key, int value) {
+        keys[ind] = key;
+        values[ind] = value;
+        states[ind] = FULL;
+        size++;
+        if (used > states.length * loadFactor) {
+            rehashing(size > states.length * loadFactor / 2 ? states.length * 2 : states.length);
+            return find(key);
+        }
+        return ind;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getDefaultValue() {
+        return defaultValue;
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    public boolean containsValue(int value) {
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] == FULL && values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int get(int key) {
+        int ind = find(key);
+        return ind < 0 ? defaultValue : values[ind];
+    }
+
+    /*
+     * Положить по ключу key значение value и вернуть ранее хранимое, либо defaultValue
+     */
+    public int put(int key, int value) {
+        int ind = slotFor(key);
+        if (ind < 0) {
+            insertAt(~ind, key, value);
+            return defaultValue;
+        }
+        int oldValue = values[ind];
+        values[ind] = value;
+        return oldValue;
+    }
+
+    /*
+     * Прибавить delta к значению по ключу key (отсутствующий ключ считается равным defaultValue)
+     *   и вернуть новое значение
+     */
+    public int addTo(int key, int delta) {
+        int ind = slotFor(key);
+        if (ind < 0) {
+            ind = insertAt(~ind, key, defaultValue);
+        }
+        values[ind] += delta;
+        return values[ind];
+    }
+
+    public int remove(int key) {
+        int ind = find(key);
+        if (ind < 0) {
+            return defaultValue;
+        }
+        int oldValue = values[ind];
+        removeAt(ind);
+        if (states.length > MIN_CAPACITY && size < states.length * loadFactor / 4) {
+            rehashing(states.length / 2);
+        }
+        return oldValue;
+    }
+
+    private void removeAt(int ind) {
+        states[ind] = REMOVED;
+        size--;
+    }
+
+    private void rehashing(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        byte[] oldStates = states;
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (int j = 0; j < oldStates.length; j++) {
+            if (oldStates[j] != FULL) {
+                continue;
+            }
+            int i = hash(oldKeys[j]) & mask;
+            while (states[i] != FREE) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+            states[i] = FULL;
+        }
+    }
+
+    public void clear() {
+        size = 0;
+        allocate(MIN_CAPACITY);
+    }
+
+    public PrimitiveIterator.OfInt keyIterator() {
+        return new TableIterator() {
+            @Override
+            public int nextInt() {
+                return keys[nextIndex()];
+            }
+        };
+    }
+
+    public PrimitiveIterator.OfInt valueIterator() {
+        return new TableIterator() {
+            @Override
+            public int nextInt() {
+                return values[nextIndex()];
+            }
+        };
+    }
+
+    /*
+     * remove() только помечает ячейку удалённой, поэтому обход продолжается без перестроения таблицы
+     */
+    private abstract class TableIterator implements PrimitiveIterator.OfInt {
+        private int next = -1;
+        private int last = -1;
+
+        private TableIterator() {
+            advance();
+        }
+
+        private void advance() {
+            next++;
+            while (next < states.length && states[next] != FULL) {
+                next++;
+            }
+        }
+
+        int nextIndex() {
+            if (next >= states.length) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            advance();
+            return last;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < states.length;
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0 || states[last] != FULL) {
+                throw new IllegalStateException();
+            }
+            removeAt(last);
+            last = -1;
+        }
+    }
+}
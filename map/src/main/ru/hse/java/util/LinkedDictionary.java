@@ -0,0 +1,168 @@
+package ru.hse.java.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/*
+ * DictionaryImpl, пары которого дополнительно связаны в двусвязный список
+ * keySet/values/entrySet обходят пары в порядке вставки, либо, если accessOrder == true,
+ *   в порядке последнего обращения через get/put (от давних к недавним)
+ * После каждой вставки вызывается removeEldestEntry: если он вернул true, самая старая пара удаляется
+ *   По умолчанию это происходит, когда размер превысил maxSize (maxSize == 0 -- без ограничения),
+ *   поэтому LinkedDictionary.lru(n) -- кеш на n элементов с вытеснением за O(1)
+ */
+public class LinkedDictionary<K, V> extends DictionaryImpl<K, V> {
+    private final boolean accessOrder;
+    private final int maxSize;
+    private LinkedEntry<K, V> head;
+    private LinkedEntry<K, V> tail;
+
+    private static class LinkedEntry<K, V> extends HashEntry<K, V> {
+        private LinkedEntry<K, V> before;
+        private LinkedEntry<K, V> after;
+
+        private LinkedEntry(int hash, K key, V value) {
+            super(hash, key, value);
+        }
+    }
+
+    public LinkedDictionary() {
+        this(false, 0);
+    }
+
+    public LinkedDictionary(boolean accessOrder) {
+        this(accessOrder, 0);
+    }
+
+    public LinkedDictionary(boolean accessOrder, int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must be non-negative");
+        }
+        this.accessOrder = accessOrder;
+        this.maxSize = maxSize;
+    }
+
+    // порядок вставки с параметрами таблицы другого словаря, см. DictionaryImpl.getAll
+    LinkedDictionary(double loadFactor, int resizeCoeff, int outside, HashIndexing indexing) {
+        super(loadFactor, resizeCoeff, outside, 0, indexing);
+        this.accessOrder = false;
+        this.maxSize = 0;
+    }
+
+    public static <K, V> LinkedDictionary<K, V> lru(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        return new LinkedDictionary<>(true, maxSize);
+    }
+
+    /*
+     * Вызывается после вставки нового ключа; eldest -- самая старая пара
+     * Наследники могут переопределить, чтобы задать свою политику вытеснения
+     */
+    protected boolean removeEldestEntry(Entry<K, V> eldest) {
+        return maxSize > 0 && size() > maxSize;
+    }
+
+    private void linkLast(LinkedEntry<K, V> entry) {
+        entry.before = tail;
+        entry.after = null;
+        if (tail == null) {
+            head = entry;
+        } else {
+            tail.after = entry;
+        }
+        tail = entry;
+    }
+
+    private void unlink(LinkedEntry<K, V> entry) {
+        if (entry.before == null) {
+            head = entry.after;
+        } else {
+            entry.before.after = entry.after;
+        }
+        if (entry.after == null) {
+            tail = entry.before;
+        } else {
+            entry.after.before = entry.before;
+        }
+        entry.before = null;
+        entry.after = null;
+    }
+
+    @Override
+    HashEntry<K, V> newEntry(int hash, K key, V value) {
+        LinkedEntry<K, V> entry = new LinkedEntry<>(hash, key, value);
+        linkLast(entry);
+        return entry;
+    }
+
+    @Override
+    void afterAccess(HashEntry<K, V> entry) {
+        if (accessOrder && entry != tail) {
+            LinkedEntry<K, V> linked = (LinkedEntry<K, V>) entry;
+            unlink(linked);
+            linkLast(linked);
+        }
+    }
+
+    @Override
+    void afterInsertion() {
+        if (head != null && removeEldestEntry(head)) {
+            remove(head.getKey());
+        }
+    }
+
+    @Override
+    void afterRemoval(HashEntry<K, V> entry) {
+        unlink((LinkedEntry<K, V>) entry);
+    }
+
+    // разбиение по порядку списка: части берутся пачками из начала
+    @Override
+    Spliterator<Entry<K, V>> entrySpliterator() {
+        return Spliterators.spliterator(entryIterator(), size(),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    @Override
+    Iterator<Entry<K, V>> entryIterator() {
+        return new Iterator<>() {
+            private LinkedEntry<K, V> next = head;
+            private LinkedEntry<K, V> last;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Entry<K, V> next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = next.after;
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                LinkedDictionary.this.remove(last.getKey());
+                last = null;
+            }
+        };
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        head = null;
+        tail = null;
+    }
+}
@@ -0,0 +1,225 @@
+package ru.hse.java.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+
+/*
+ * Хеш-таблица long -> V без упаковки ключей
+ * Открытая адресация с линейным пробированием по массивам long[] ключей и Object[] значений,
+ *   состояние ячейки (пустая / занятая / удалённая) хранится в byte[]
+ * Для отсутствующего ключа get/put/remove возвращают null
+ */
+public class LongObjDictionary<V> {
+    private static final byte FREE = 0;
+    private static final byte FULL = 1;
+    private static final byte REMOVED = 2;
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] keys;
+    private Object[] values;
+    private byte[] states;
+    private int size;
+    private int used;
+    private final double loadFactor;
+
+    public LongObjDictionary() {
+        this(0.5);
+    }
+
+    public LongObjDictionary(double loadFactor) {
+        if (loadFactor <= 0 || loadFactor >= 1) {
+            throw new IllegalArgumentException("loadFactor must be in (0, 1)");
+        }
+        this.loadFactor = loadFactor;
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        states = new byte[capacity];
+        used = size;
+    }
+
+    private static int hash(long key) {
+        int h = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int find(long key) {
+        int mask = states.length - 1;
+        for (int i = hash(key) & mask; states[i] != FREE; i = (i + 1) & mask) {
+            if (states[i] == FULL && keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    public boolean containsValue(Object value) {
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] == FULL && Objects.equals(value, values[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int ind = find(key);
+        return ind < 0 ? null : (V) values[ind];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        int mask = states.length - 1;
+        int free = -1;
+        int i = hash(key) & mask;
+        for (; states[i] != FREE; i = (i + 1) & mask) {
+            if (states[i] == REMOVED) {
+                if (free < 0) {
+                    free = i;
+                }
+            } else if (keys[i] == key) {
+                V oldValue = (V) values[i];
+                values[i] = value;
+                return oldValue;
+            }
+        }
+        if (free < 0) {
+            free = i;
+            used++;
+        }
+        keys[free] = key;
+        values[free] = value;
+        states[free] = FULL;
+        size++;
+        if (used > states.length * loadFactor) {
+            rehashing(size > states.length * loadFactor / 2 ? states.length * 2 : states.length);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int ind = find(key);
+        if (ind < 0) {
+            return null;
+        }
+        V oldValue = (V) values[ind];
+        removeAt(ind);
+        if (states.length > MIN_CAPACITY && size < states.length * loadFactor / 4) {
+            rehashing(states.length / 2);
+        }
+        return oldValue;
+    }
+
+    private void removeAt(int ind) {
+        states[ind] = REMOVED;
+        values[ind] = null;
+        size--;
+    }
+
+    private void rehashing(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        byte[] oldStates = states;
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (int j = 0; j < oldStates.length; j++) {
+            if (oldStates[j] != FULL) {
+                continue;
+            }
+            int i = hash(oldKeys[j]) & mask;
+            while (states[i] != FREE) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+            states[i] = FULL;
+        }
+    }
+
+    public void clear() {
+        size = 0;
+        allocate(MIN_CAPACITY);
+    }
+
+    public PrimitiveIterator.OfLong keyIterator() {
+        return new KeyIterator();
+    }
+
+    public Iterator<V> valueIterator() {
+        return new ValueIterator();
+    }
+
+    private class KeyIterator extends TableIterator implements PrimitiveIterator.OfLong {
+        @Override
+        public long nextLong() {
+            return keys[nextIndex()];
+        }
+    }
+
+    private class ValueIterator extends TableIterator implements Iterator<V> {
+        @SuppressWarnings("unchecked")
+        @Override
+        public V next() {
+            return (V) values[nextIndex()];
+        }
+    }
+
+    /*
+     * remove() только помечает ячейку удалённой, поэтому обход продолжается без перестроения таблицы
+     */
+    private abstract class TableIterator {
+        private int next = -1;
+        private int last = -1;
+
+        private TableIterator() {
+            advance();
+        }
+
+        private void advance() {
+            next++;
+            while (next < states.length && states[next] != FULL) {
+                next++;
+            }
+        }
+
+        int nextIndex() {
+            if (next >= states.length) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            advance();
+            return last;
+        }
+
+        public boolean hasNext() {
+            return next < states.length;
+        }
+
+        public void remove() {
+            if (last < 0 || states[last] != FULL) {
+                throw new IllegalStateException();
+            }
+            removeAt(last);
+            last = -1;
+        }
+    }
+}
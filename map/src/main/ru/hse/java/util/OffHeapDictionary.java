@@ -0,0 +1,614 @@
+package ru.hse.java.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/*
+ * Хеш-таблица, хранящая ключи и значения вне кучи
+ * Пары в сериализованном виде дописываются в конец арены -- прямого ByteBuffer,
+ *   либо MappedByteBuffer поверх файла (см. open), тогда содержимое переживает перезапуск
+ * Формат арены: [int MAGIC][int конец записанных данных], затем записи
+ *   [byte LIVE/DEAD][int хеш][int длина ключа][int длина значения, -1 для null][ключ][значение]
+ * Индекс -- открытая адресация по прямому буферу long'ов: старшие 32 бита -- хеш ключа,
+ *   младшие -- смещение записи в арене; индекс не сохраняется и перестраивается при открытии
+ * Значение той же длины перезаписывается на месте; иначе перезапись и удаление помечают старую запись DEAD,
+ *   место освобождается уплотнением арены, когда мёртвых байт становится не меньше половины
+ */
+public class OffHeapDictionary<K, V> implements Dictionary<K, V>, Closeable {
+    private static final int MAGIC = 0x0FF4EA9D;
+    private static final int HEADER = 8;
+    private static final int RECORD_HEADER = 13;
+    private static final byte DEAD = 0;
+    private static final byte LIVE = 1;
+    private static final long TOMBSTONE = -1L;
+    private static final int MIN_INDEX_CAPACITY = 16;
+    private static final int INITIAL_ARENA = 1 << 16;
+
+    private final ByteSerializer<K> keySerializer;
+    private final ByteSerializer<V> valueSerializer;
+    private final FileChannel channel;
+    private ByteBuffer arena;
+    private ByteBuffer index;
+    private int indexCapacity;
+    private int end;
+    private int dead;
+    private int size;
+    private int used;
+    // меняется при любом изменении набора ячеек индекса; итераторы по нему замечают чужие изменения
+    private int modCount;
+    private Set<K> keySet;
+    private Collection<V> values;
+    private Set<Entry<K, V>> entrySet;
+
+    public OffHeapDictionary(@NotNull ByteSerializer<K> keySerializer, @NotNull ByteSerializer<V> valueSerializer) {
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.channel = null;
+        arena = ByteBuffer.allocateDirect(INITIAL_ARENA);
+        arena.putInt(0, MAGIC);
+        setEnd(HEADER);
+        rebuildIndex();
+    }
+
+    private OffHeapDictionary(ByteSerializer<K> keySerializer, ByteSerializer<V> valueSerializer,
+                              FileChannel channel) throws IOException {
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.channel = channel;
+        long fileSize = channel.size();
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("file is too large");
+        }
+        if (fileSize == 0) {
+            arena = channel.map(FileChannel.MapMode.READ_WRITE, 0, INITIAL_ARENA);
+            arena.putInt(0, MAGIC);
+            setEnd(HEADER);
+        } else {
+            arena = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            if (fileSize < HEADER || arena.getInt(0) != MAGIC) {
+                throw new IOException("not an OffHeapDictionary file");
+            }
+            end = arena.getInt(4);
+            if (end < HEADER || end > fileSize) {
+                throw new IOException("corrupted OffHeapDictionary file");
+            }
+            checkRecords();
+        }
+        rebuildIndex();
+    }
+
+    /*
+     * Открыть (или создать) словарь, хранящийся в файле file
+     * Изменения попадают в файл через отображение в память, flush() принудительно сбрасывает их на диск
+     */
+    public static <K, V> OffHeapDictionary<K, V> open(@NotNull Path file, @NotNull ByteSerializer<K> keySerializer,
+                                                      @NotNull ByteSerializer<V> valueSerializer) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new OffHeapDictionary<>(keySerializer, valueSerializer, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void setEnd(int newEnd) {
+        end = newEnd;
+        arena.putInt(4, end);
+    }
+
+    private static int hash(byte[] bytes) {
+        int h = Arrays.hashCode(bytes) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int recordSize(int offset) {
+        int valueLength = arena.getInt(offset + 9);
+        return RECORD_HEADER + arena.getInt(offset + 5) + Math.max(valueLength, 0);
+    }
+
+    /*
+     * Проверяет, что записи из файла целиком лежат до end и их длины осмысленны
+     * Без этого испорченная длина даёт recordSize <= 0, и обход записей в rebuildIndex не закончится
+     */
+    private void checkRecords() throws IOException {
+        for (int offset = HEADER; offset < end; ) {
+            if (offset + RECORD_HEADER > end) {
+                throw new IOException("corrupted OffHeapDictionary file");
+            }
+            byte state = arena.get(offset);
+            int keyLength = arena.getInt(offset + 5);
+            int valueLength = arena.getInt(offset + 9);
+            if (state != LIVE && state != DEAD || keyLength < 0 || valueLength < -1
+                    || (long) offset + RECORD_HEADER + keyLength + Math.max(valueLength, 0) > end) {
+                throw new IOException("corrupted OffHeapDictionary file");
+            }
+            offset += recordSize(offset);
+        }
+    }
+
+    private byte[] readBytes(int from, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = arena.duplicate();
+        view.position(from);
+        view.get(bytes);
+        return bytes;
+    }
+
+    private K keyAt(int offset) {
+        return keySerializer.fromBytes(readBytes(offset + RECORD_HEADER, arena.getInt(offset + 5)));
+    }
+
+    private V valueAt(int offset) {
+        int valueLength = arena.getInt(offset + 9);
+        if (valueLength < 0) {
+            return null;
+        }
+        return valueSerializer.fromBytes(readBytes(offset + RECORD_HEADER + arena.getInt(offset + 5), valueLength));
+    }
+
+    private boolean keyEquals(int offset, byte[] key) {
+        if (arena.getInt(offset + 5) != key.length) {
+            return false;
+        }
+        int from = offset + RECORD_HEADER;
+        for (int i = 0; i < key.length; i++) {
+            if (arena.get(from + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long slot(int i) {
+        return index.getLong(i << 3);
+    }
+
+    private void setSlot(int i, long value) {
+        index.putLong(i << 3, value);
+    }
+
+    private static int offsetOf(long slot) {
+        return (int) slot;
+    }
+
+    private static long slotValue(int hash, int offset) {
+        return ((long) hash << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static boolean isLive(long slot) {
+        return slot != 0 && slot != TOMBSTONE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] keyBytes(Object key) {
+        return keySerializer.toBytes((K) Objects.requireNonNull(key));
+    }
+
+    /*
+     * Номер ячейки индекса с ключом key, либо -1
+     */
+    private int find(byte[] key, int hash) {
+        int mask = indexCapacity - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            long s = slot(i);
+            if (s == 0) {
+                return -1;
+            }
+            if (s != TOMBSTONE && (int) (s >>> 32) == hash && keyEquals(offsetOf(s), key)) {
+                return i;
+            }
+        }
+    }
+
+    private void insertSlot(int hash, int offset) {
+        int mask = indexCapacity - 1;
+        int i = hash & mask;
+        while (isLive(slot(i))) {
+            i = (i + 1) & mask;
+        }
+        if (slot(i) == 0) {
+            used++;
+        }
+        setSlot(i, slotValue(hash, offset));
+    }
+
+    /*
+     * Перестраивает индекс по живым записям арены, подбирая ему размер под текущее число пар
+     */
+    private void rebuildIndex() {
+        int live = 0;
+        for (int offset = HEADER; offset < end; offset += recordSize(offset)) {
+            if (arena.get(offset) == LIVE) {
+                live++;
+            }
+        }
+        indexCapacity = MIN_INDEX_CAPACITY;
+        while (indexCapacity < live * 4) {
+            indexCapacity <<= 1;
+        }
+        index = ByteBuffer.allocateDirect(indexCapacity << 3);
+        used = 0;
+        size = 0;
+        dead = 0;
+        modCount++;
+        for (int offset = HEADER; offset < end; offset += recordSize(offset)) {
+            if (arena.get(offset) == LIVE) {
+                insertSlot(arena.getInt(offset + 1), offset);
+                size++;
+            } else {
+                dead += recordSize(offset);
+            }
+        }
+    }
+
+    private int append(int hash, byte[] key, byte[] value, boolean compactAllowed) {
+        int length = RECORD_HEADER + key.length + (value == null ? 0 : value.length);
+        ensureArenaCapacity(length, compactAllowed);
+        int offset = end;
+        arena.put(offset, LIVE);
+        arena.putInt(offset + 1, hash);
+        arena.putInt(offset + 5, key.length);
+        arena.putInt(offset + 9, value == null ? -1 : value.length);
+        ByteBuffer view = arena.duplicate();
+        view.position(offset + RECORD_HEADER);
+        view.put(key);
+        if (value != null) {
+            view.put(value);
+        }
+        setEnd(offset + length);
+        return offset;
+    }
+
+    private void markDead(int offset) {
+        arena.put(offset, DEAD);
+        dead += recordSize(offset);
+    }
+
+    // без compactAllowed арена только растёт: уплотнение перестраивает индекс
+    private void ensureArenaCapacity(int length, boolean compactAllowed) {
+        if ((long) end + length <= arena.capacity()) {
+            return;
+        }
+        if (compactAllowed && dead >= (end - HEADER) / 2) {
+            compact();
+            if ((long) end + length <= arena.capacity()) {
+                return;
+            }
+        }
+        long newCapacity = Math.max(2L * arena.capacity(), (long) end + length);
+        if (newCapacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("OffHeapDictionary arena is limited to 2GB");
+        }
+        resizeArena((int) newCapacity);
+    }
+
+    private void resizeArena(int newCapacity) {
+        if (channel != null) {
+            try {
+                arena = channel.map(FileChannel.MapMode.READ_WRITE, 0, newCapacity);
+            } catch (IOException e) {
+                throw new IllegalStateException("cannot grow mapped file", e);
+            }
+            return;
+        }
+        ByteBuffer newArena = ByteBuffer.allocateDirect(newCapacity);
+        ByteBuffer old = arena.duplicate();
+        old.position(0).limit(end);
+        newArena.put(old);
+        arena = newArena;
+    }
+
+    /*
+     * Сдвигает живые записи к началу арены поверх мёртвых и перестраивает индекс
+     * Записи переезжают только влево, поэтому уплотнение идёт на месте, в том числе в файле
+     */
+    public void compact() {
+        int to = HEADER;
+        for (int from = HEADER; from < end; ) {
+            int length = recordSize(from);
+            if (arena.get(from) == LIVE) {
+                if (from != to) {
+                    byte[] record = readBytes(from, length);
+                    ByteBuffer view = arena.duplicate();
+                    view.position(to);
+                    view.put(record);
+                }
+                to += length;
+            }
+            from += length;
+        }
+        setEnd(to);
+        rebuildIndex();
+    }
+
+    // сбросить изменения отображённого файла на диск
+    public void flush() {
+        if (arena instanceof MappedByteBuffer) {
+            ((MappedByteBuffer) arena).force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            flush();
+            channel.close();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        byte[] bytes = keyBytes(key);
+        return find(bytes, hash(bytes)) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (int offset = HEADER; offset < end; offset += recordSize(offset)) {
+            if (arena.get(offset) == LIVE && Objects.equals(value, valueAt(offset))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public V get(Object key) {
+        byte[] bytes = keyBytes(key);
+        int i = find(bytes, hash(bytes));
+        return i < 0 ? null : valueAt(offsetOf(slot(i)));
+    }
+
+    @Override
+    public V put(@NotNull K key, V value) {
+        byte[] bytes = keyBytes(key);
+        byte[] valueBytes = value == null ? null : valueSerializer.toBytes(value);
+        int hash = hash(bytes);
+        int i = find(bytes, hash);
+        V oldValue = null;
+        if (i >= 0) {
+            oldValue = valueAt(offsetOf(slot(i)));
+            if (overwrite(offsetOf(slot(i)), valueBytes)) {
+                return oldValue;
+            }
+            removeAt(i);
+        }
+        int offset = append(hash, bytes, valueBytes, true);
+        insertSlot(hash, offset);
+        size++;
+        modCount++;
+        if (used * 2 > indexCapacity) {
+            rebuildIndex();
+        }
+        return oldValue;
+    }
+
+    @Override
+    public V remove(Object key) {
+        byte[] bytes = keyBytes(key);
+        int i = find(bytes, hash(bytes));
+        if (i < 0) {
+            return null;
+        }
+        int offset = offsetOf(slot(i));
+        V oldValue = valueAt(offset);
+        removeAt(i);
+        return oldValue;
+    }
+
+    private void removeAt(int i) {
+        markDead(offsetOf(slot(i)));
+        setSlot(i, TOMBSTONE);
+        size--;
+        modCount++;
+    }
+
+    // переписывает значение записи на месте, если его длина не меняется
+    private boolean overwrite(int offset, byte[] value) {
+        int valueLength = arena.getInt(offset + 9);
+        if (value == null ? valueLength >= 0 : valueLength != value.length) {
+            return false;
+        }
+        if (value != null) {
+            ByteBuffer view = arena.duplicate();
+            view.position(offset + RECORD_HEADER + arena.getInt(offset + 5));
+            view.put(value);
+        }
+        return true;
+    }
+
+    /*
+     * Замена значения из записи обхода: набор ячеек индекса не меняется, индекс не перестраивается,
+     *   поэтому итератор, выдавший запись, продолжает работать
+     * Значение другой длины дописывается новой записью, и на неё переставляется та же ячейка
+     */
+    private void replaceValue(int i, byte[] value) {
+        int offset = offsetOf(slot(i));
+        if (overwrite(offset, value)) {
+            return;
+        }
+        int hash = arena.getInt(offset + 1);
+        byte[] key = readBytes(offset + RECORD_HEADER, arena.getInt(offset + 5));
+        int newOffset = append(hash, key, value, false);
+        markDead(offset);
+        setSlot(i, slotValue(hash, newOffset));
+    }
+
+    @Override
+    public void putAll(@NotNull Map<? extends K, ? extends V> m) {
+        for (Map.Entry<? extends K, ? extends V> element : m.entrySet()) {
+            put(element.getKey(), element.getValue());
+        }
+    }
+
+    @Override
+    public void clear() {
+        setEnd(HEADER);
+        rebuildIndex();
+    }
+
+    @Override
+    public @NotNull Set<K> keySet() {
+        if (keySet == null) {
+            keySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<K> iterator() {
+                    return new IndexIterator<>() {
+                        @Override
+                        K get(int offset) {
+                            return keyAt(offset);
+                        }
+                    };
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return keySet;
+    }
+
+    @Override
+    public @NotNull Collection<V> values() {
+        if (values == null) {
+            values = new AbstractCollection<>() {
+                @Override
+                public @NotNull Iterator<V> iterator() {
+                    return new IndexIterator<>() {
+                        @Override
+                        V get(int offset) {
+                            return valueAt(offset);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return values;
+    }
+
+    @Override
+    public @NotNull Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<K, V>> iterator() {
+                    return new IndexIterator<>() {
+                        @Override
+                        Entry<K, V> get(int offset) {
+                            return new WriteThroughEntry(keyAt(offset), valueAt(offset));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private class WriteThroughEntry extends AbstractMap.SimpleEntry<K, V> {
+        private WriteThroughEntry(K key, V value) {
+            super(key, value);
+        }
+
+        // пара, удалённая после выдачи записи, обратно не добавляется
+        @Override
+        public V setValue(V value) {
+            byte[] bytes = keyBytes(getKey());
+            int i = find(bytes, hash(bytes));
+            if (i >= 0) {
+                replaceValue(i, value == null ? null : valueSerializer.toBytes(value));
+            }
+            return super.setValue(value);
+        }
+    }
+
+    /*
+     * Обходит ячейки индекса; remove() ставит TOMBSTONE и не перестраивает индекс
+     * Любое другое изменение набора ячеек (put нового ключа, remove, уплотнение) ломает обход: next() бросит CME
+     */
+    private abstract class IndexIterator<T> implements Iterator<T> {
+        private int next = -1;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        private IndexIterator() {
+            advance();
+        }
+
+        private void advance() {
+            next++;
+            while (next < indexCapacity && !isLive(slot(next))) {
+                next++;
+            }
+        }
+
+        abstract T get(int offset);
+
+        @Override
+        public boolean hasNext() {
+            return next < indexCapacity;
+        }
+
+        @Override
+        public T next() {
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= indexCapacity) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            advance();
+            return get(offsetOf(slot(last)));
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            expectedModCount = modCount;
+            last = -1;
+        }
+    }
+}
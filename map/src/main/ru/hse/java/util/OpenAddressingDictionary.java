@@ -0,0 +1,352 @@
+package ru.hse.java.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/*
+ * Хеш-таблица с открытой адресацией и линейным пробированием
+ * Ключи и значения хранятся в двух параллельных массивах, без объектов-обёрток на каждую пару
+ * Удалённые ячейки помечаются TOMBSTONE, чтобы не ломать цепочки пробирования и итераторы
+ */
+public class OpenAddressingDictionary<K, V> implements Dictionary<K, V> {
+    private static final Object TOMBSTONE = new Object();
+    private static final int MIN_CAPACITY = 8;
+
+    private Object[] keyTable;
+    private Object[] valueTable;
+    private int size;
+    private int used;
+    private Set<K> keySet;
+    private Collection<V> values;
+    private Set<Entry<K, V>> entrySet;
+    private final double loadFactor;
+
+    public OpenAddressingDictionary() {
+        this(0.5);
+    }
+
+    public OpenAddressingDictionary(double loadFactor) {
+        if (loadFactor <= 0 || loadFactor >= 1) {
+            throw new IllegalArgumentException("loadFactor must be in (0, 1)");
+        }
+        this.loadFactor = loadFactor;
+        keyTable = new Object[MIN_CAPACITY];
+        valueTable = new Object[MIN_CAPACITY];
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /*
+     * Индекс ячейки с ключом key, либо -1, если такого ключа нет
+     */
+    private int find(Object key) {
+        int mask = keyTable.length - 1;
+        for (int i = spread(key.hashCode()) & mask; ; i = (i + 1) & mask) {
+            Object k = keyTable[i];
+            if (k == null) {
+                return -1;
+            }
+            if (k != TOMBSTONE && key.equals(k)) {
+                return i;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (int i = 0; i < keyTable.length; i++) {
+            if (isLive(i) && Objects.equals(value, valueTable[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(Object key) {
+        int ind = find(key);
+        return ind < 0 ? null : (V) valueTable[ind];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V put(@NotNull K key, V value) {
+        int mask = keyTable.length - 1;
+        int free = -1;
+        int i = spread(key.hashCode()) & mask;
+        for (; keyTable[i] != null; i = (i + 1) & mask) {
+            Object k = keyTable[i];
+            if (k == TOMBSTONE) {
+                if (free < 0) {
+                    free = i;
+                }
+            } else if (key.equals(k)) {
+                V oldValue = (V) valueTable[i];
+                valueTable[i] = value;
+                return oldValue;
+            }
+        }
+        if (free < 0) {
+            free = i;
+            used++;
+        }
+        keyTable[free] = key;
+        valueTable[free] = value;
+        size++;
+        if (used > keyTable.length * loadFactor) {
+            rehashing(size > keyTable.length * loadFactor / 2 ? keyTable.length * 2 : keyTable.length);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V remove(Object key) {
+        int ind = find(key);
+        if (ind < 0) {
+            return null;
+        }
+        V oldValue = (V) valueTable[ind];
+        removeAt(ind);
+        if (keyTable.length > MIN_CAPACITY && size < keyTable.length * loadFactor / 4) {
+            rehashing(keyTable.length / 2);
+        }
+        return oldValue;
+    }
+
+    private void removeAt(int ind) {
+        keyTable[ind] = TOMBSTONE;
+        valueTable[ind] = null;
+        size--;
+    }
+
+    private boolean isLive(int ind) {
+        return keyTable[ind] != null && keyTable[ind] != TOMBSTONE;
+    }
+
+    private void rehashing(int newCapacity) {
+        Object[] oldKeys = keyTable;
+        Object[] oldValues = valueTable;
+        keyTable = new Object[newCapacity];
+        valueTable = new Object[newCapacity];
+        used = size;
+        int mask = newCapacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            Object k = oldKeys[j];
+            if (k == null || k == TOMBSTONE) {
+                continue;
+            }
+            int i = spread(k.hashCode()) & mask;
+            while (keyTable[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keyTable[i] = k;
+            valueTable[i] = oldValues[j];
+        }
+    }
+
+    @Override
+    public void putAll(@NotNull Map<? extends K, ? extends V> m) {
+        for (Map.Entry<? extends K, ? extends V> element : m.entrySet()) {
+            put(element.getKey(), element.getValue());
+        }
+    }
+
+    @Override
+    public void clear() {
+        keyTable = new Object[MIN_CAPACITY];
+        valueTable = new Object[MIN_CAPACITY];
+        size = 0;
+        used = 0;
+    }
+
+    @Override
+    public @NotNull Set<K> keySet() {
+        if (keySet == null) {
+            keySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<K> iterator() {
+                    return new TableIterator<>() {
+                        @SuppressWarnings("unchecked")
+                        @Override
+                        K get(int ind) {
+                            return (K) keyTable[ind];
+                        }
+                    };
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return keySet;
+    }
+
+    @Override
+    public @NotNull Collection<V> values() {
+        if (values == null) {
+            values = new AbstractCollection<>() {
+                @Override
+                public @NotNull Iterator<V> iterator() {
+                    return new TableIterator<>() {
+                        @SuppressWarnings("unchecked")
+                        @Override
+                        V get(int ind) {
+                            return (V) valueTable[ind];
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return values;
+    }
+
+    @Override
+    public @NotNull Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<K, V>> iterator() {
+                    return new TableIterator<>() {
+                        @Override
+                        Entry<K, V> get(int ind) {
+                            return new TableEntry(ind);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private class TableEntry implements Entry<K, V> {
+        private final K key;
+        private final int ind;
+
+        @SuppressWarnings("unchecked")
+        private TableEntry(int ind) {
+            this.key = (K) keyTable[ind];
+            this.ind = ind;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public V getValue() {
+            return (V) valueTable[ind];
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public V setValue(V value) {
+            V oldValue = (V) valueTable[ind];
+            valueTable[ind] = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /*
+     * Обходит живые ячейки таблицы; remove() только ставит TOMBSTONE,
+     *   поэтому порядок обхода не меняется и рехеширования во время итерации не происходит
+     */
+    private abstract class TableIterator<T> implements Iterator<T> {
+        private int next = -1;
+        private int last = -1;
+
+        private TableIterator() {
+            advance();
+        }
+
+        private void advance() {
+            next++;
+            while (next < keyTable.length && (keyTable[next] == null || keyTable[next] == TOMBSTONE)) {
+                next++;
+            }
+        }
+
+        abstract T get(int ind);
+
+        @Override
+        public boolean hasNext() {
+            return next < keyTable.length;
+        }
+
+        @Override
+        public T next() {
+            if (next >= keyTable.length) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            advance();
+            return get(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0 || keyTable[last] == TOMBSTONE) {
+                throw new IllegalStateException();
+            }
+            removeAt(last);
+            last = -1;
+        }
+    }
+}
@@ -0,0 +1,509 @@
+package ru.hse.java.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Словарь на неизменяемом префиксном дереве по хешам (hash array mapped trie)
+ * Каждый уровень дерева разбирает очередные BITS бит хеша: узел хранит битовую маску занятых ветвей
+ *   и плотный массив из пар ключ-значение и ссылок на поддеревья; ключи с полностью равными хешами
+ *   лежат в CollisionNode
+ * Изменение копирует только путь от корня до нужного узла, остальное дерево общее со старой версией,
+ *   поэтому snapshot() -- O(1): новый словарь просто ссылается на тот же корень
+ * Текущая версия меняется через compareAndSet, так что читатели никогда не ждут писателей,
+ *   а одновременные put/remove из разных потоков не теряются
+ * Итераторы обходят версию, которая была на момент их создания
+ */
+public class PersistentDictionary<K, V> implements Dictionary<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final Object NOT_FOUND = new Object();
+    private static final Version EMPTY = new Version(BitmapNode.EMPTY, 0);
+
+    private final AtomicReference<Version> version;
+    private Set<K> keySet;
+    private Collection<V> values;
+    private Set<Entry<K, V>> entrySet;
+
+    private static final class Version {
+        private final Node root;
+        private final int size;
+
+        private Version(Node root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+    }
+
+    // результат одного изменения: добавилась ли новая пара и прежнее значение
+    private static final class Change {
+        private boolean added;
+        private Object oldValue;
+    }
+
+    public PersistentDictionary() {
+        this(EMPTY);
+    }
+
+    private PersistentDictionary(Version version) {
+        this.version = new AtomicReference<>(version);
+    }
+
+    /*
+     * Независимая копия за O(1): дальнейшие изменения этого словаря и копии друг на друга не влияют
+     */
+    public @NotNull PersistentDictionary<K, V> snapshot() {
+        return new PersistentDictionary<>(version.get());
+    }
+
+    private static int hash(Object key) {
+        return HashIndexing.mix(key.hashCode());
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private abstract static class Node {
+        // пары ключ-значение подряд; в BitmapNode ключ null означает, что на месте значения лежит поддерево
+        final Object[] array;
+
+        Node(Object[] array) {
+            this.array = array;
+        }
+
+        abstract Object find(Object key, int hash, int shift);
+
+        abstract Node put(Object key, int hash, Object value, int shift, Change change);
+
+        // null, если узел стал пустым
+        abstract Node remove(Object key, int hash, int shift, Change change);
+
+        boolean isSinglePair() {
+            return array.length == 2 && array[0] != null;
+        }
+    }
+
+    private static final class BitmapNode extends Node {
+        private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+
+        private BitmapNode(int bitmap, Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        private int index(int bit) {
+            return 2 * Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            int i = index(bit);
+            Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).find(key, hash, shift + BITS);
+            }
+            return key.equals(k) ? array[i + 1] : NOT_FOUND;
+        }
+
+        @Override
+        Node put(Object key, int hash, Object value, int shift, Change change) {
+            int bit = bit(hash, shift);
+            int i = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, i);
+                newArray[i] = key;
+                newArray[i + 1] = value;
+                System.arraycopy(array, i, newArray, i + 2, array.length - i);
+                change.added = true;
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+            Object k = array[i];
+            if (k == null) {
+                Node child = (Node) array[i + 1];
+                Node newChild = child.put(key, hash, value, shift + BITS, change);
+                return newChild == child ? this : with(i + 1, newChild);
+            }
+            if (key.equals(k)) {
+                change.oldValue = array[i + 1];
+                return array[i + 1] == value ? this : with(i + 1, value);
+            }
+            change.added = true;
+            Node child = pair(k, hash(k), array[i + 1], key, hash, value, shift + BITS);
+            Object[] newArray = array.clone();
+            newArray[i] = null;
+            newArray[i + 1] = child;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        private BitmapNode with(int i, Object item) {
+            Object[] newArray = array.clone();
+            newArray[i] = item;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        private BitmapNode without(int bit, int i) {
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            return new BitmapNode(bitmap ^ bit, newArray);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift, Change change) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = index(bit);
+            Object k = array[i];
+            if (k == null) {
+                Node child = (Node) array[i + 1];
+                Node newChild = child.remove(key, hash, shift + BITS, change);
+                if (newChild == child) {
+                    return this;
+                }
+                if (newChild == null) {
+                    return without(bit, i);
+                }
+                if (newChild.isSinglePair()) {
+                    // последняя пара поддерева поднимается на место ссылки на него
+                    Object[] newArray = array.clone();
+                    newArray[i] = newChild.array[0];
+                    newArray[i + 1] = newChild.array[1];
+                    return new BitmapNode(bitmap, newArray);
+                }
+                return with(i + 1, newChild);
+            }
+            if (!key.equals(k)) {
+                return this;
+            }
+            change.oldValue = array[i + 1];
+            return without(bit, i);
+        }
+    }
+
+    private static final class CollisionNode extends Node {
+        private final int hash;
+
+        private CollisionNode(int hash, Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            if (hash != this.hash) {
+                return NOT_FOUND;
+            }
+            int i = indexOf(key);
+            return i < 0 ? NOT_FOUND : array[i + 1];
+        }
+
+        @Override
+        Node put(Object key, int hash, Object value, int shift, Change change) {
+            if (hash != this.hash) {
+                return new BitmapNode(bit(this.hash, shift), new Object[]{null, this})
+                        .put(key, hash, value, shift, change);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                change.oldValue = array[i + 1];
+                if (array[i + 1] == value) {
+                    return this;
+                }
+                Object[] newArray = array.clone();
+                newArray[i + 1] = value;
+                return new CollisionNode(hash, newArray);
+            }
+            Object[] newArray = Arrays.copyOf(array, array.length + 2);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            change.added = true;
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift, Change change) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            if (i < 0) {
+                return this;
+            }
+            change.oldValue = array[i + 1];
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            return new CollisionNode(hash, newArray);
+        }
+    }
+
+    // поддерево из двух пар с разными ключами, начиная с уровня shift
+    private static Node pair(Object key1, int hash1, Object value1,
+                             Object key2, int hash2, Object value2, int shift) {
+        if (hash1 == hash2) {
+            return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+        }
+        Change ignored = new Change();
+        return BitmapNode.EMPTY.put(key1, hash1, value1, shift, ignored).put(key2, hash2, value2, shift, ignored);
+    }
+
+    @Override
+    public int size() {
+        return version.get().size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return version.get().root.find(key, hash(key), 0) != NOT_FOUND;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (V element : values()) {
+            if (Objects.equals(value, element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        Object value = version.get().root.find(key, hash(key), 0);
+        return value == NOT_FOUND ? null : (V) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(@NotNull K key, V value) {
+        int hash = hash(key);
+        while (true) {
+            Version current = version.get();
+            Change change = new Change();
+            Node root = current.root.put(key, hash, value, 0, change);
+            if (root == current.root
+                    || version.compareAndSet(current, new Version(root, current.size + (change.added ? 1 : 0)))) {
+                return (V) change.oldValue;
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        int hash = hash(key);
+        while (true) {
+            Version current = version.get();
+            Change change = new Change();
+            Node root = current.root.remove(key, hash, 0, change);
+            if (root == current.root) {
+                return null;
+            }
+            if (root == null) {
+                root = BitmapNode.EMPTY;
+            }
+            if (version.compareAndSet(current, new Version(root, current.size - 1))) {
+                return (V) change.oldValue;
+            }
+        }
+    }
+
+    @Override
+    public void putAll(@NotNull Map<? extends K, ? extends V> m) {
+        for (Map.Entry<? extends K, ? extends V> element : m.entrySet()) {
+            put(element.getKey(), element.getValue());
+        }
+    }
+
+    @Override
+    public void clear() {
+        version.set(EMPTY);
+    }
+
+    @Override
+    public @NotNull Set<K> keySet() {
+        if (keySet == null) {
+            keySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<K> iterator() {
+                    return new TrieIterator<>() {
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        K get(Object key, Object value) {
+                            return (K) key;
+                        }
+                    };
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public int size() {
+                    return PersistentDictionary.this.size();
+                }
+            };
+        }
+        return keySet;
+    }
+
+    @Override
+    public @NotNull Collection<V> values() {
+        if (values == null) {
+            values = new AbstractCollection<>() {
+                @Override
+                public @NotNull Iterator<V> iterator() {
+                    return new TrieIterator<>() {
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        V get(Object key, Object value) {
+                            return (V) value;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return PersistentDictionary.this.size();
+                }
+            };
+        }
+        return values;
+    }
+
+    @Override
+    public @NotNull Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<K, V>> iterator() {
+                    return new TrieIterator<>() {
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        Entry<K, V> get(Object key, Object value) {
+                            return new WriteThroughEntry((K) key, (V) value);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return PersistentDictionary.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    // setValue меняет и пару, и словарь
+    private class WriteThroughEntry extends AbstractMap.SimpleEntry<K, V> {
+        private WriteThroughEntry(K key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+
+    /*
+     * Обход в глубину по версии, которая была при создании итератора; remove удаляет ключ из словаря
+     * Глубина дерева не больше ceil(32 / BITS) уровней BitmapNode и CollisionNode под ними
+     */
+    private abstract class TrieIterator<T> implements Iterator<T> {
+        private final Node[] nodes = new Node[32 / BITS + 2];
+        private final int[] positions = new int[32 / BITS + 2];
+        private int depth;
+        private Object nextKey;
+        private Object nextValue;
+        private Object lastKey;
+
+        private TrieIterator() {
+            nodes[0] = version.get().root;
+            advance();
+        }
+
+        abstract T get(Object key, Object value);
+
+        private void advance() {
+            nextKey = null;
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                int i = positions[depth];
+                if (i >= node.array.length) {
+                    depth--;
+                    continue;
+                }
+                positions[depth] = i + 2;
+                if (node.array[i] == null) {
+                    depth++;
+                    nodes[depth] = (Node) node.array[i + 1];
+                    positions[depth] = 0;
+                } else {
+                    nextKey = node.array[i];
+                    nextValue = node.array[i + 1];
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextKey != null;
+        }
+
+        @Override
+        public T next() {
+            if (nextKey == null) {
+                throw new NoSuchElementException();
+            }
+            T result = get(nextKey, nextValue);
+            lastKey = nextKey;
+            advance();
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) {
+                throw new IllegalStateException();
+            }
+            PersistentDictionary.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package ru.hse.java.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.*;
+
+/*
+ * Общая часть WeakKeyDictionary и SoftValueDictionary: хеш-таблица со списками в корзинах,
+ *   в которой ключ или значение каждой пары держится через ссылку, которую может очистить сборщик
+ * Очищенные ссылки приходят в очередь queue; каждое изменяющее словарь действие (а также size())
+ *   вычищает их пары без обхода таблицы, а до того пара считается отсутствующей и обход её пропускает
+ * Наследник задаёт узел N -- какая из половин пары держится ссылкой и как по ссылке из очереди найти узел
+ */
+abstract class ReferenceDictionary<K, V, N extends ReferenceDictionary.Node<K, V, N>> implements Dictionary<K, V> {
+    private static final int MIN_CAPACITY = 16;
+    private static final double LOAD_FACTOR = 0.75;
+
+    final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    private N[] table = newTable(MIN_CAPACITY);
+    private int size;
+    private Set<K> keySet;
+    private Collection<V> values;
+    private Set<Entry<K, V>> entrySet;
+
+    interface Node<K, V, N> {
+        int hash();
+
+        N next();
+
+        void setNext(N next);
+
+        // null, если ключ уже собран
+        K key();
+
+        V value();
+
+        // ключ или значение пары собраны
+        boolean isCollected();
+
+        // отпустить то, что узел держит сильными ссылками, после удаления из таблицы
+        void detach();
+    }
+
+    abstract N[] newTable(int capacity);
+
+    abstract N newNode(K key, int hash, V value, N next);
+
+    // записать новое значение в узел и вернуть прежнее
+    abstract V replaceValue(N node, V value);
+
+    // узел, который надо вычистить по ссылке из очереди, либо null, если ссылка уже не используется
+    abstract N nodeOf(Reference<?> ref);
+
+    private int index(int hash) {
+        return HashIndexing.mix(hash) & (table.length - 1);
+    }
+
+    private void expunge() {
+        for (Reference<?> ref; (ref = queue.poll()) != null; ) {
+            N node = nodeOf(ref);
+            if (node != null) {
+                unlink(node);
+            }
+        }
+    }
+
+    private void unlink(N node) {
+        int i = index(node.hash());
+        N prev = null;
+        for (N cur = table[i]; cur != null; prev = cur, cur = cur.next()) {
+            if (cur == node) {
+                if (prev == null) {
+                    table[i] = cur.next();
+                } else {
+                    prev.setNext(cur.next());
+                }
+                cur.detach();
+                size--;
+                return;
+            }
+        }
+    }
+
+    private N find(Object key) {
+        int hash = key.hashCode();
+        for (N node = table[index(hash)]; node != null; node = node.next()) {
+            if (node.hash() == hash && key.equals(node.key())) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        expunge();
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        N node = find(key);
+        return node != null && !node.isCollected();
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (N bucket : table) {
+            for (N node = bucket; node != null; node = node.next()) {
+                V nodeValue = node.value();
+                if (!node.isCollected() && Objects.equals(value, nodeValue)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public V get(Object key) {
+        N node = find(key);
+        return node == null ? null : node.value();
+    }
+
+    @Override
+    public V put(@NotNull K key, V value) {
+        expunge();
+        N node = find(key);
+        if (node != null) {
+            return replaceValue(node, value);
+        }
+        int hash = key.hashCode();
+        int i = index(hash);
+        table[i] = newNode(key, hash, value, table[i]);
+        if (++size > table.length * LOAD_FACTOR) {
+            rehashing(table.length * 2);
+        }
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        expunge();
+        N node = find(key);
+        if (node == null) {
+            return null;
+        }
+        V oldValue = node.value();
+        unlink(node);
+        return oldValue;
+    }
+
+    // собранные пары при переносе отбрасываются; их ссылки останутся в очереди, но unlink узлы уже не найдёт
+    private void rehashing(int newCapacity) {
+        N[] oldTable = table;
+        table = newTable(newCapacity);
+        for (N bucket : oldTable) {
+            for (N node = bucket; node != null; ) {
+                N next = node.next();
+                if (node.isCollected()) {
+                    node.detach();
+                    size--;
+                } else {
+                    int i = index(node.hash());
+                    node.setNext(table[i]);
+                    table[i] = node;
+                }
+                node = next;
+            }
+        }
+    }
+
+    @Override
+    public void putAll(@NotNull Map<? extends K, ? extends V> m) {
+        for (Map.Entry<? extends K, ? extends V> element : m.entrySet()) {
+            put(element.getKey(), element.getValue());
+        }
+    }
+
+    @Override
+    public void clear() {
+        while (queue.poll() != null) {
+            // старые узлы больше не в таблице
+        }
+        table = newTable(MIN_CAPACITY);
+        size = 0;
+    }
+
+    @Override
+    public @NotNull Set<K> keySet() {
+        if (keySet == null) {
+            keySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<K> iterator() {
+                    return new NodeIterator<>() {
+                        @Override
+                        K get(N node, K key, V value) {
+                            return key;
+                        }
+                    };
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public int size() {
+                    return ReferenceDictionary.this.size();
+                }
+            };
+        }
+        return keySet;
+    }
+
+    @Override
+    public @NotNull Collection<V> values() {
+        if (values == null) {
+            values = new AbstractCollection<>() {
+                @Override
+                public @NotNull Iterator<V> iterator() {
+                    return new NodeIterator<>() {
+                        @Override
+                        V get(N node, K key, V value) {
+                            return value;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return ReferenceDictionary.this.size();
+                }
+            };
+        }
+        return values;
+    }
+
+    @Override
+    public @NotNull Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<K, V>> iterator() {
+                    return new NodeIterator<>() {
+                        @Override
+                        Entry<K, V> get(N node, K key, V value) {
+                            return new NodeEntry(node, key, value);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return ReferenceDictionary.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    // запись держит ключ и значение сильными ссылками, setValue пишет прямо в узел
+    private final class NodeEntry extends AbstractMap.SimpleEntry<K, V> {
+        private final N node;
+
+        NodeEntry(N node, K key, V value) {
+            super(key, value);
+            this.node = node;
+        }
+
+        @Override
+        public V setValue(V value) {
+            super.setValue(value);
+            return replaceValue(node, value);
+        }
+    }
+
+    /*
+     * Обходит корзины, пропуская собранные пары
+     * Ключ и значение следующей пары удерживаются сильными ссылками, чтобы они не пропали между hasNext() и next()
+     */
+    private abstract class NodeIterator<T> implements Iterator<T> {
+        private final N[] tab = table;
+        private int bucket;
+        private N next;
+        private K nextKey;
+        private V nextValue;
+        private N last;
+        private K lastKey;
+
+        abstract T get(N node, K key, V value);
+
+        @Override
+        public boolean hasNext() {
+            while (nextKey == null) {
+                next = next == null ? null : next.next();
+                while (next == null && bucket < tab.length) {
+                    next = tab[bucket++];
+                }
+                if (next == null) {
+                    return false;
+                }
+                nextKey = next.key();
+                nextValue = next.value();
+                if (next.isCollected()) {
+                    nextKey = null;
+                    nextValue = null;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            lastKey = nextKey;
+            V value = nextValue;
+            nextKey = null;
+            nextValue = null;
+            return get(last, lastKey, value);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            if (tab == table) {
+                unlink(last);
+            } else {
+                ReferenceDictionary.this.remove(lastKey);
+            }
+            last = null;
+            lastKey = null;
+        }
+    }
+}
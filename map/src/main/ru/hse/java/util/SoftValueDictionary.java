@@ -0,0 +1,102 @@
+package ru.hse.java.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Objects;
+
+/*
+ * Хеш-таблица с мягкими ссылками на значения -- для кешей, которые сборщик может ужать при нехватке памяти
+ * Ключи хранятся обычными ссылками; очищенная сборщиком ссылка на значение попадает в очередь queue,
+ *   и каждое изменяющее словарь действие (а также size()) вычищает пары с такими значениями без обхода таблицы
+ * Пара с очищенным, но ещё не вычищенным значением считается отсутствующей: get вернёт null, обход её пропустит
+ * Поэтому null в качестве значения (как и в качестве ключа) не допускается
+ * Таблица, очередь и обход -- общие с WeakKeyDictionary, см. ReferenceDictionary
+ */
+public class SoftValueDictionary<K, V> extends ReferenceDictionary<K, V, SoftValueDictionary.Node<K, V>> {
+
+    static final class Node<K, V> implements ReferenceDictionary.Node<K, V, Node<K, V>> {
+        final K key;
+        final int hash;
+        ValueRef<K, V> ref;
+        Node<K, V> next;
+
+        Node(K key, int hash, Node<K, V> next) {
+            this.key = key;
+            this.hash = hash;
+            this.next = next;
+        }
+
+        @Override
+        public int hash() {
+            return hash;
+        }
+
+        @Override
+        public Node<K, V> next() {
+            return next;
+        }
+
+        @Override
+        public void setNext(Node<K, V> next) {
+            this.next = next;
+        }
+
+        @Override
+        public K key() {
+            return key;
+        }
+
+        @Override
+        public V value() {
+            return ref.get();
+        }
+
+        @Override
+        public boolean isCollected() {
+            return ref.get() == null;
+        }
+
+        @Override
+        public void detach() {
+        }
+    }
+
+    // мягкая ссылка на значение знает свой узел, чтобы его можно было найти, когда она окажется в очереди
+    private static final class ValueRef<K, V> extends SoftReference<V> {
+        final Node<K, V> node;
+
+        ValueRef(V value, Node<K, V> node, ReferenceQueue<Object> queue) {
+            super(value, queue);
+            this.node = node;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Node<K, V>[] newTable(int capacity) {
+        return (Node<K, V>[]) new Node[capacity];
+    }
+
+    @Override
+    Node<K, V> newNode(K key, int hash, V value, Node<K, V> next) {
+        Node<K, V> node = new Node<>(key, hash, next);
+        replaceValue(node, value);
+        return node;
+    }
+
+    @Override
+    V replaceValue(Node<K, V> node, V value) {
+        V oldValue = node.ref == null ? null : node.ref.get();
+        node.ref = new ValueRef<>(Objects.requireNonNull(value), node, queue);
+        return oldValue;
+    }
+
+    // ссылка, которую успели заменить через put или setValue, узел не трогает
+    @Override
+    @SuppressWarnings("unchecked")
+    Node<K, V> nodeOf(Reference<?> ref) {
+        ValueRef<K, V> valueRef = (ValueRef<K, V>) ref;
+        return valueRef.node.ref == valueRef ? valueRef.node : null;
+    }
+}
@@ -0,0 +1,247 @@
+package ru.hse.java.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/*
+ * Корзина DictionaryImpl в виде АВЛ-дерева для ключей с одинаковыми индексами
+ * Пары упорядочены по хешу ключа, при равных хешах -- через compareTo, если ключи одного
+ *   Comparable-класса, иначе порядок при вставке выбирается по имени класса и identityHashCode
+ * Поиск ключа, который нельзя сравнить с узлом, проверяет оба поддерева
+ */
+class TreeBucket<K, V> extends AbstractCollection<HashEntry<K, V>> {
+    private Node<K, V> root;
+    private int size;
+    private boolean removed;
+
+    private static class Node<K, V> {
+        private final HashEntry<K, V> entry;
+        private final int hash;
+        private Node<K, V> left;
+        private Node<K, V> right;
+        private int height = 1;
+
+        private Node(HashEntry<K, V> entry) {
+            this.entry = entry;
+            this.hash = entry.hash;
+        }
+    }
+
+    TreeBucket(Collection<HashEntry<K, V>> entries) {
+        for (HashEntry<K, V> entry : entries) {
+            add(entry);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareComparables(Object a, Object b) {
+        if (a.getClass() == b.getClass() && a instanceof Comparable) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return 0;
+    }
+
+    private static int tieBreak(Object a, Object b) {
+        int c = a.getClass().getName().compareTo(b.getClass().getName());
+        if (c == 0) {
+            c = Integer.compare(System.identityHashCode(a), System.identityHashCode(b));
+        }
+        return c;
+    }
+
+    private static int order(Object key, int hash, Node<?, ?> node) {
+        int c = Integer.compare(hash, node.hash);
+        if (c == 0) {
+            c = compareComparables(key, node.entry.getKey());
+        }
+        return c;
+    }
+
+    HashEntry<K, V> find(Object key, int hash) {
+        Node<K, V> node = find(root, key, hash);
+        return node == null ? null : node.entry;
+    }
+
+    private static <K, V> Node<K, V> find(Node<K, V> node, Object key, int hash) {
+        while (node != null) {
+            if (hash == node.hash && key.equals(node.entry.getKey())) {
+                return node;
+            }
+            int c = order(key, hash, node);
+            if (c == 0) {
+                Node<K, V> found = find(node.left, key, hash);
+                return found != null ? found : find(node.right, key, hash);
+            }
+            node = c < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean add(HashEntry<K, V> entry) {
+        root = insert(root, new Node<>(entry));
+        size++;
+        return true;
+    }
+
+    private static <K, V> Node<K, V> insert(Node<K, V> node, Node<K, V> inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        int c = order(inserted.entry.getKey(), inserted.hash, node);
+        if (c == 0) {
+            c = tieBreak(inserted.entry.getKey(), node.entry.getKey());
+        }
+        if (c < 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+        return balance(node);
+    }
+
+    /*
+     * Удаляет именно эту пару (сравнение по ссылке), true если она была в дереве
+     */
+    boolean removeEntry(HashEntry<K, V> entry) {
+        removed = false;
+        root = remove(root, entry, entry.hash);
+        if (removed) {
+            size--;
+        }
+        return removed;
+    }
+
+    private Node<K, V> remove(Node<K, V> node, HashEntry<K, V> entry, int hash) {
+        if (node == null) {
+            return null;
+        }
+        if (node.entry == entry) {
+            removed = true;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node<K, V> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        int c = order(entry.getKey(), hash, node);
+        if (c <= 0) {
+            node.left = remove(node.left, entry, hash);
+        }
+        if (c > 0 || (c == 0 && !removed)) {
+            node.right = remove(node.right, entry, hash);
+        }
+        return balance(node);
+    }
+
+    private static <K, V> Node<K, V> removeMin(Node<K, V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private static int height(Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void updateHeight(Node<?, ?> node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+    }
+
+    private static <K, V> Node<K, V> rotateRight(Node<K, V> node) {
+        Node<K, V> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        updateHeight(node);
+        updateHeight(left);
+        return left;
+    }
+
+    private static <K, V> Node<K, V> rotateLeft(Node<K, V> node) {
+        Node<K, V> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        updateHeight(node);
+        updateHeight(right);
+        return right;
+    }
+
+    private static <K, V> Node<K, V> balance(Node<K, V> node) {
+        updateHeight(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /*
+     * Итератор обходит снимок пар на момент создания, remove() удаляет последнюю пару из дерева
+     */
+    @Override
+    public @NotNull Iterator<HashEntry<K, V>> iterator() {
+        List<HashEntry<K, V>> entries = new ArrayList<>(size);
+        collect(root, entries);
+        return new Iterator<>() {
+            private int next = 0;
+            private boolean canRemove = false;
+
+            @Override
+            public boolean hasNext() {
+                return next < entries.size();
+            }
+
+            @Override
+            public HashEntry<K, V> next() {
+                if (next >= entries.size()) {
+                    throw new NoSuchElementException();
+                }
+                canRemove = true;
+                return entries.get(next++);
+            }
+
+            @Override
+            public void remove() {
+                if (!canRemove) {
+                    throw new IllegalStateException();
+                }
+                removeEntry(entries.get(next - 1));
+                canRemove = false;
+            }
+        };
+    }
+
+    private static <K, V> void collect(Node<K, V> node, List<HashEntry<K, V>> entries) {
+        if (node == null) {
+            return;
+        }
+        collect(node.left, entries);
+        entries.add(node.entry);
+        collect(node.right, entries);
+    }
+}
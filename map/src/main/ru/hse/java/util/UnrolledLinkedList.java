@@ -0,0 +1,160 @@
+package ru.hse.java.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/*
+ * Развёрнутый связный список: элементы лежат подряд в массивах-блоках, а не по одному в узлах
+ * Первый блок хранится прямо в полях списка и растёт удвоением от FIRST_CAPACITY до CHUNK_CAPACITY,
+ *   следующие блоки -- объекты Chunk по CHUNK_CAPACITY элементов, связанные в двусвязный список
+ * Короткий список (например, корзина DictionaryImpl) -- это сам объект и один небольшой массив,
+ *   накладные расходы -- одна ссылка на элемент вместо узла с next/prev у MyLinkedList
+ * add и remove через итератор -- O(1): удаление сдвигает элементы только внутри своего блока,
+ *   опустевший блок выбрасывается
+ */
+public class UnrolledLinkedList<E> extends AbstractCollection<E> {
+    private static final int FIRST_CAPACITY = 2;
+    static final int CHUNK_CAPACITY = 16;
+    private static final Object[] NO_ITEMS = new Object[0];
+
+    Object[] items = NO_ITEMS;
+    int count;
+    Chunk first;
+    private Chunk last;
+    private int size;
+
+    static final class Chunk {
+        final Object[] items = new Object[CHUNK_CAPACITY];
+        int count;
+        Chunk next;
+        private Chunk prev;
+    }
+
+    @Override
+    public boolean add(E e) {
+        if (last == null) {
+            if (count == items.length && items.length < CHUNK_CAPACITY) {
+                items = Arrays.copyOf(items, Math.max(FIRST_CAPACITY, 2 * items.length));
+            }
+            if (count < items.length) {
+                items[count++] = e;
+                size++;
+                return true;
+            }
+        }
+        if (last == null || last.count == CHUNK_CAPACITY) {
+            Chunk chunk = new Chunk();
+            if (last == null) {
+                first = chunk;
+            } else {
+                last.next = chunk;
+                chunk.prev = last;
+            }
+            last = chunk;
+        }
+        last.items[last.count++] = e;
+        size++;
+        return true;
+    }
+
+    /*
+     * Удаляет index-й элемент блока chunk (null -- первый блок, лежащий в полях списка)
+     * Ссылка next у выброшенного блока сохраняется, чтобы итератор мог пройти дальше
+     */
+    void removeAt(Chunk chunk, int index) {
+        Object[] array = chunk == null ? items : chunk.items;
+        int length = chunk == null ? count : chunk.count;
+        System.arraycopy(array, index + 1, array, index, length - index - 1);
+        array[length - 1] = null;
+        size--;
+        if (chunk == null) {
+            count--;
+            return;
+        }
+        if (--chunk.count == 0) {
+            if (chunk.prev == null) {
+                first = chunk.next;
+            } else {
+                chunk.prev.next = chunk.next;
+            }
+            if (chunk.next == null) {
+                last = chunk.prev;
+            } else {
+                chunk.next.prev = chunk.prev;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        items = NO_ITEMS;
+        count = 0;
+        first = null;
+        last = null;
+        size = 0;
+    }
+
+    @Override
+    public @NotNull Iterator<E> iterator() {
+        return new Iterator<>() {
+            // позиция следующего элемента: первый блок или блок chunk, и индекс в нём
+            private boolean inFirst = true;
+            private Chunk chunk;
+            private int index;
+            private boolean lastInFirst;
+            private Chunk lastChunk;
+            private int lastIndex = -1;
+
+            private boolean seek() {
+                if (inFirst) {
+                    if (index < count) {
+                        return true;
+                    }
+                    inFirst = false;
+                    chunk = first;
+                    index = 0;
+                }
+                while (chunk != null && index >= chunk.count) {
+                    chunk = chunk.next;
+                    index = 0;
+                }
+                return chunk != null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return seek();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (!seek()) {
+                    throw new NoSuchElementException();
+                }
+                lastInFirst = inFirst;
+                lastChunk = chunk;
+                lastIndex = index;
+                return (E) (inFirst ? items[index++] : chunk.items[index++]);
+            }
+
+            @Override
+            public void remove() {
+                if (lastIndex < 0) {
+                    throw new IllegalStateException();
+                }
+                removeAt(lastInFirst ? null : lastChunk, lastIndex);
+                if (lastInFirst == inFirst && lastChunk == chunk) {
+                    index--;
+                }
+                lastIndex = -1;
+            }
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package ru.hse.java.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/*
+ * Хеш-таблица со слабыми ссылками на ключи -- для кешей, которые не должны удерживать ключи в памяти
+ * Пара живёт, пока ключ достижим откуда-то ещё; после сборки ключа сборщик кладёт узел в очередь queue,
+ *   и каждое изменяющее словарь действие (а также size()) вычищает такие узлы из корзин без обхода таблицы
+ * Ключи сравниваются по equals, null в качестве ключа не допускается
+ * Значения хранятся сильными ссылками: значение, ссылающееся на свой ключ, не даст ключу быть собранным
+ * Пока узел не вычищен, size() может учитывать уже собранные ключи; обход их пропускает
+ * Таблица, очередь и обход -- общие с SoftValueDictionary, см. ReferenceDictionary
+ */
+public class WeakKeyDictionary<K, V> extends ReferenceDictionary<K, V, WeakKeyDictionary.Node<K, V>> {
+
+    // узел сам является слабой ссылкой на ключ и сам попадает в очередь
+    static final class Node<K, V> extends WeakReference<K> implements ReferenceDictionary.Node<K, V, Node<K, V>> {
+        final int hash;
+        V value;
+        Node<K, V> next;
+
+        Node(K key, int hash, V value, Node<K, V> next, ReferenceQueue<Object> queue) {
+            super(key, queue);
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+
+        @Override
+        public int hash() {
+            return hash;
+        }
+
+        @Override
+        public Node<K, V> next() {
+            return next;
+        }
+
+        @Override
+        public void setNext(Node<K, V> next) {
+            this.next = next;
+        }
+
+        @Override
+        public K key() {
+            return get();
+        }
+
+        @Override
+        public V value() {
+            return value;
+        }
+
+        @Override
+        public boolean isCollected() {
+            return get() == null;
+        }
+
+        @Override
+        public void detach() {
+            value = null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Node<K, V>[] newTable(int capacity) {
+        return (Node<K, V>[]) new Node[capacity];
+    }
+
+    @Override
+    Node<K, V> newNode(K key, int hash, V value, Node<K, V> next) {
+        return new Node<>(key, hash, value, next, queue);
+    }
+
+    @Override
+    V replaceValue(Node<K, V> node, V value) {
+        V oldValue = node.value;
+        node.value = value;
+        return oldValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Node<K, V> nodeOf(Reference<?> ref) {
+        return (Node<K, V>) ref;
+    }
+}
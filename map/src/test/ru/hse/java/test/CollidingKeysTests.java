@@ -0,0 +1,154 @@
+package ru.hse.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.hse.java.util.DictionaryImpl;
+
+import java.util.*;
+
+/*
+ * Ключи с одинаковыми хешами: корзины превращаются в деревья и обратно
+ */
+public class CollidingKeysTests {
+
+    /*
+     * "Aa" и "BB" имеют одинаковый hashCode, поэтому все 2^n склеек из n таких кусков тоже
+     */
+    static List<String> collidingStrings(int n) {
+        List<String> result = new ArrayList<>(List.of(""));
+        for (int i = 0; i < n; i++) {
+            List<String> next = new ArrayList<>();
+            for (String s : result) {
+                next.add(s + "Aa");
+                next.add(s + "BB");
+            }
+            result = next;
+        }
+        return result;
+    }
+
+    // Не Comparable, все экземпляры попадают в одну корзину
+    static final class BadKey {
+        private final int id;
+
+        BadKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BadKey && ((BadKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+    @Test
+    public void testCollidingStrings() {
+        List<String> keys = collidingStrings(12);
+        Map<String, Integer> map = new DictionaryImpl<>();
+        for (int i = 0; i < keys.size(); i++) {
+            map.put(keys.get(i), i);
+        }
+        Assertions.assertEquals(keys.size(), map.size());
+        for (int i = 0; i < keys.size(); i++) {
+            Assertions.assertEquals(i, map.get(keys.get(i)));
+        }
+        Assertions.assertNull(map.get("AaAa"));
+        Assertions.assertFalse(map.containsKey(keys.get(0) + "x"));
+    }
+
+    @Test
+    public void testNonComparableKeys() {
+        Map<BadKey, Integer> map = new DictionaryImpl<>();
+        for (int i = 0; i < 2000; i++) {
+            map.put(new BadKey(i), i);
+        }
+        for (int i = 0; i < 2000; i++) {
+            Assertions.assertEquals(i, map.get(new BadKey(i)));
+        }
+        for (int i = 0; i < 2000; i += 2) {
+            Assertions.assertEquals(i, map.remove(new BadKey(i)));
+        }
+        Assertions.assertEquals(1000, map.size());
+        for (int i = 0; i < 2000; i++) {
+            Assertions.assertEquals(i % 2 == 1, map.containsKey(new BadKey(i)));
+        }
+    }
+
+    @Test
+    public void testMixedStress() {
+        List<String> colliding = collidingStrings(10);
+        Map<Object, Integer> map = new DictionaryImpl<>();
+        Map<Object, Integer> hashMap = new HashMap<>();
+        Random random = new Random(14);
+        for (int i = 0; i < 100000; i++) {
+            int kind = random.nextInt(3);
+            Object key = kind == 0 ? colliding.get(random.nextInt(colliding.size()))
+                    : kind == 1 ? new BadKey(random.nextInt(300)) : (Object) random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(hashMap.remove(key), map.remove(key));
+            } else {
+                Assertions.assertEquals(hashMap.put(key, i), map.put(key, i));
+            }
+            Assertions.assertEquals(hashMap.size(), map.size());
+        }
+        Assertions.assertEquals(hashMap.entrySet(), map.entrySet());
+    }
+
+    @Test
+    public void testShrinkBackToList() {
+        List<String> keys = collidingStrings(8);
+        Map<String, Integer> map = new DictionaryImpl<>();
+        for (int i = 0; i < 200; i++) {
+            map.put(Integer.toString(i), i);
+        }
+        for (String key : keys) {
+            map.put(key, 0);
+        }
+        for (int i = 0; i < keys.size() - 1; i++) {
+            map.remove(keys.get(i));
+        }
+        Assertions.assertEquals(201, map.size());
+        Assertions.assertEquals(0, map.get(keys.get(keys.size() - 1)));
+        for (int i = 0; i < 200; i++) {
+            Assertions.assertEquals(i, map.get(Integer.toString(i)));
+        }
+    }
+
+    @Test
+    public void testIteratorRemoveInTreeBucket() {
+        List<String> keys = collidingStrings(8);
+        Map<String, Integer> map = new DictionaryImpl<>();
+        for (int i = 0; i < keys.size(); i++) {
+            map.put(keys.get(i), i);
+        }
+        Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue() % 2 == 0) {
+                it.remove();
+            }
+        }
+        Assertions.assertEquals(keys.size() / 2, map.size());
+        for (int i = 0; i < keys.size(); i++) {
+            Assertions.assertEquals(i % 2 == 0 ? null : i, map.get(keys.get(i)));
+        }
+    }
+
+    @Test
+    public void testIncrementalRehashingWithCollisions() {
+        List<String> keys = collidingStrings(10);
+        Map<String, Integer> map = new DictionaryImpl<>(0.75, 2, 10, 1);
+        for (int i = 0; i < keys.size(); i++) {
+            map.put(keys.get(i), i);
+            Assertions.assertEquals(i, map.get(keys.get(i)));
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            Assertions.assertEquals(i, map.remove(keys.get(i)));
+        }
+        Assertions.assertTrue(map.isEmpty());
+    }
+}
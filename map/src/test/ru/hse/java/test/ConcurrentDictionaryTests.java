@@ -0,0 +1,233 @@
+package ru.hse.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.hse.java.util.ConcurrentDictionary;
+import ru.hse.java.util.Dictionary;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+public class ConcurrentDictionaryTests {
+    private static final int THREADS = 8;
+
+    private static void runInThreads(int threads, IntConsumer task) throws InterruptedException {
+        List<Thread> list = new ArrayList<>();
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread thread = new Thread(() -> task.accept(id));
+            thread.setUncaughtExceptionHandler((th, e) -> errors.add(e));
+            list.add(thread);
+        }
+        list.forEach(Thread::start);
+        for (Thread thread : list) {
+            thread.join();
+        }
+        if (!errors.isEmpty()) {
+            Assertions.fail(errors.get(0));
+        }
+    }
+
+    @Test
+    public void testSingleThreadStress() {
+        Dictionary<Integer, Integer> dictionary = new ConcurrentDictionary<>();
+        HashMap<Integer, Integer> hashMap = new HashMap<>();
+        Random random = new Random(14);
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(hashMap.remove(key), dictionary.remove(key));
+            } else {
+                Assertions.assertEquals(hashMap.put(key, i), dictionary.put(key, i));
+            }
+        }
+        Assertions.assertEquals(hashMap.size(), dictionary.size());
+        Assertions.assertEquals(hashMap.entrySet(), dictionary.entrySet());
+    }
+
+    @Test
+    public void testConcurrentPutDisjointKeys() throws InterruptedException {
+        Dictionary<Integer, Integer> dictionary = new ConcurrentDictionary<>();
+        int perThread = 20000;
+        runInThreads(THREADS, id -> {
+            for (int i = 0; i < perThread; i++) {
+                int key = i * THREADS + id;
+                dictionary.put(key, -key);
+            }
+        });
+        Assertions.assertEquals(THREADS * perThread, dictionary.size());
+        for (int key = 0; key < THREADS * perThread; key++) {
+            Assertions.assertEquals(-key, dictionary.get(key));
+        }
+    }
+
+    @Test
+    public void testConcurrentPutRemove() throws InterruptedException {
+        Dictionary<Integer, Integer> dictionary = new ConcurrentDictionary<>(0.75, 4);
+        runInThreads(THREADS, id -> {
+            Random random = new Random(id);
+            for (int i = 0; i < 50000; i++) {
+                int key = random.nextInt(1000) * THREADS + id;
+                if (random.nextBoolean()) {
+                    dictionary.put(key, id);
+                } else {
+                    dictionary.remove(key);
+                }
+            }
+            for (int key = id; key < 1000 * THREADS; key += THREADS) {
+                dictionary.remove(key);
+            }
+        });
+        Assertions.assertEquals(0, dictionary.size());
+        Assertions.assertFalse(dictionary.entrySet().iterator().hasNext());
+    }
+
+    @Test
+    public void testPutIfAbsentIsAtomic() throws InterruptedException {
+        Dictionary<Integer, Integer> dictionary = new ConcurrentDictionary<>();
+        int[] winners = new int[THREADS];
+        runInThreads(THREADS, id -> {
+            for (int key = 0; key < 10000; key++) {
+                if (dictionary.putIfAbsent(key, id) == null) {
+                    winners[id]++;
+                }
+            }
+        });
+        Assertions.assertEquals(10000, Arrays.stream(winners).sum());
+        Assertions.assertEquals(10000, dictionary.size());
+    }
+
+    @Test
+    public void testReadersDuringWrites() throws InterruptedException {
+        Dictionary<Integer, Integer> dictionary = new ConcurrentDictionary<>();
+        for (int key = 0; key < 1000; key++) {
+            dictionary.put(key, key);
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        runInThreads(THREADS, id -> {
+            if (id == 0) {
+                for (int key = 1000; key < 200000; key++) {
+                    dictionary.put(key, key);
+                }
+                done.set(true);
+                return;
+            }
+            while (!done.get()) {
+                for (int key = 0; key < 1000; key++) {
+                    Assertions.assertEquals(key, dictionary.get(key));
+                }
+                int seen = 0;
+                for (Map.Entry<Integer, Integer> entry : dictionary.entrySet()) {
+                    Assertions.assertEquals(entry.getKey(), entry.getValue());
+                    seen++;
+                }
+                Assertions.assertTrue(seen >= 1000);
+            }
+        });
+        Assertions.assertEquals(200000, dictionary.size());
+    }
+
+    @Test
+    void testIteratorRemove() {
+        Dictionary<Integer, Integer> dictionary = new ConcurrentDictionary<>();
+        for (int i = 0; i < 100; i++) {
+            dictionary.put(i, i);
+        }
+        Iterator<Integer> it = dictionary.keySet().iterator();
+        Assertions.assertThrows(IllegalStateException.class, it::remove);
+        while (it.hasNext()) {
+            if (it.next() < 50) {
+                it.remove();
+            }
+        }
+        Assertions.assertEquals(50, dictionary.size());
+        Assertions.assertNull(dictionary.get(10));
+        Assertions.assertEquals(60, dictionary.get(60));
+    }
+
+    @Test
+    void testEntrySetValue() {
+        Dictionary<Integer, Integer> dictionary = new ConcurrentDictionary<>();
+        dictionary.put(1, 1);
+        dictionary.entrySet().iterator().next().setValue(5);
+        Assertions.assertEquals(5, dictionary.get(1));
+    }
+
+    @Test
+    void testConditionalRemoveAndReplace() {
+        Dictionary<Integer, Integer> dictionary = new ConcurrentDictionary<>();
+        dictionary.put(1, 1);
+        Assertions.assertFalse(dictionary.remove(1, 2));
+        Assertions.assertFalse(dictionary.replace(1, 2, 3));
+        Assertions.assertTrue(dictionary.replace(1, 1, 3));
+        Assertions.assertTrue(dictionary.remove(1, 3));
+        Assertions.assertTrue(dictionary.isEmpty());
+    }
+
+    @Test
+    public void testMergeIsAtomic() throws InterruptedException {
+        Dictionary<Integer, Integer> dictionary = new ConcurrentDictionary<>();
+        runInThreads(THREADS, id -> {
+            for (int i = 0; i < 100000; i++) {
+                dictionary.merge(i % 100, 1, Integer::sum);
+            }
+        });
+        Assertions.assertEquals(100, dictionary.size());
+        for (int key = 0; key < 100; key++) {
+            Assertions.assertEquals(THREADS * 1000, dictionary.get(key));
+        }
+    }
+
+    @Test
+    public void testComputeIsAtomic() throws InterruptedException {
+        Dictionary<Integer, Integer> dictionary = new ConcurrentDictionary<>();
+        int[] created = new int[THREADS];
+        runInThreads(THREADS, id -> {
+            for (int key = 0; key < 10000; key++) {
+                dictionary.computeIfAbsent(key, k -> {
+                    created[id]++;
+                    return 0;
+                });
+                dictionary.compute(key, (k, v) -> v + 1);
+                dictionary.computeIfPresent(key, (k, v) -> v + 1);
+            }
+        });
+        Assertions.assertEquals(10000, Arrays.stream(created).sum());
+        Assertions.assertEquals(10000, dictionary.size());
+        for (int key = 0; key < 10000; key++) {
+            Assertions.assertEquals(2 * THREADS, dictionary.get(key));
+        }
+        runInThreads(THREADS, id -> dictionary.replaceAll((k, v) -> v + 1));
+        Assertions.assertEquals(3 * THREADS, dictionary.get(9999));
+    }
+
+    @Test
+    void testComputeFamily() {
+        Dictionary<String, Integer> dictionary = new ConcurrentDictionary<>();
+        Assertions.assertEquals(1, dictionary.merge("a", 1, Integer::sum));
+        Assertions.assertEquals(3, dictionary.merge("a", 2, Integer::sum));
+        Assertions.assertNull(dictionary.merge("a", 1, (a, b) -> null));
+        Assertions.assertFalse(dictionary.containsKey("a"));
+        Assertions.assertNull(dictionary.computeIfPresent("a", (k, v) -> 1));
+        Assertions.assertNull(dictionary.replace("a", 1));
+        Assertions.assertFalse(dictionary.containsKey("a"));
+        Assertions.assertEquals(5, dictionary.compute("a", (k, v) -> v == null ? 5 : v));
+        Assertions.assertEquals(5, dictionary.computeIfAbsent("a", k -> 7));
+        Assertions.assertEquals(5, dictionary.replace("a", 6));
+        Assertions.assertNull(dictionary.compute("a", (k, v) -> null));
+        Assertions.assertTrue(dictionary.isEmpty());
+    }
+
+    @Test
+    void testEntrySetValueAfterRemove() {
+        Dictionary<Integer, Integer> dictionary = new ConcurrentDictionary<>();
+        dictionary.put(1, 1);
+        Map.Entry<Integer, Integer> entry = dictionary.entrySet().iterator().next();
+        dictionary.remove(1);
+        entry.setValue(5);
+        Assertions.assertFalse(dictionary.containsKey(1));
+        Assertions.assertEquals(5, entry.getValue());
+    }
+}
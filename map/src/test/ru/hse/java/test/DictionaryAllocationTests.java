@@ -0,0 +1,111 @@
+package ru.hse.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.hse.java.util.DictionaryImpl;
+import ru.hse.java.util.HashIndexing;
+import ru.hse.java.util.LinkedDictionary;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/*
+ * Поиск существующих ключей в DictionaryImpl не должен выделять память:
+ *   количество выделенных потоком байт берётся из com.sun.management.ThreadMXBean
+ */
+public class DictionaryAllocationTests {
+    private static final int ROUNDS = 20;
+    // на случай служебных выделений самой JVM; итератор на каждый поиск дал бы сотни килобайт
+    private static final long TOLERANCE = 1024;
+
+    private com.sun.management.ThreadMXBean threadBean;
+    private long sink;
+
+    @BeforeEach
+    void setUp() {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        allocatedBytes();
+    }
+
+    private long allocatedBytes() {
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private void lookups(Map<Object, Object> map, Object[] keys, Object[] values) {
+        for (int i = 0; i < keys.length; i++) {
+            if (map.containsKey(keys[i])) {
+                sink++;
+            }
+            if (map.get(keys[i]) == values[i]) {
+                sink++;
+            }
+            map.put(keys[i], values[i]);
+        }
+    }
+
+    private long lookupAllocations(Map<Object, Object> map, Object[] keys) {
+        Object[] values = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = i;
+            map.put(keys[i], values[i]);
+        }
+        lookups(map, keys, values);
+        long before = allocatedBytes();
+        for (int round = 0; round < ROUNDS; round++) {
+            lookups(map, keys, values);
+        }
+        long allocated = allocatedBytes() - before;
+        Assertions.assertEquals((long) ROUNDS * 2 * keys.length + 2 * keys.length, sink);
+        return allocated;
+    }
+
+    private static Object[] integerKeys(int n) {
+        Object[] keys = new Object[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = i * 31;
+        }
+        return keys;
+    }
+
+    @Test
+    public void testMeasurementSeesAllocations() {
+        long before = allocatedBytes();
+        List<Object> garbage = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            garbage.add(new Object());
+        }
+        Assertions.assertTrue(allocatedBytes() - before > 1000 * 8);
+        Assertions.assertEquals(1000, garbage.size());
+    }
+
+    @Test
+    public void testDefaultLookupsDoNotAllocate() {
+        long allocated = lookupAllocations(new DictionaryImpl<>(), integerKeys(1000));
+        Assertions.assertTrue(allocated < TOLERANCE, allocated + " bytes allocated");
+    }
+
+    @Test
+    public void testPowerOfTwoLookupsDoNotAllocate() {
+        long allocated = lookupAllocations(
+                new DictionaryImpl<>(0.75, 2, 10, 4, HashIndexing.POWER_OF_TWO), integerKeys(1000));
+        Assertions.assertTrue(allocated < TOLERANCE, allocated + " bytes allocated");
+    }
+
+    @Test
+    public void testTreeBucketLookupsDoNotAllocate() {
+        Object[] keys = CollidingKeysTests.collidingStrings(9).toArray();
+        long allocated = lookupAllocations(new DictionaryImpl<>(), keys);
+        Assertions.assertTrue(allocated < TOLERANCE, allocated + " bytes allocated");
+    }
+
+    @Test
+    public void testLinkedLookupsDoNotAllocate() {
+        long allocated = lookupAllocations(new LinkedDictionary<>(true), integerKeys(1000));
+        Assertions.assertTrue(allocated < TOLERANCE, allocated + " bytes allocated");
+    }
+}
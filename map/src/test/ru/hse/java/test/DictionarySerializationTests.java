@@ -0,0 +1,142 @@
+package ru.hse.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.hse.java.util.ByteSerializer;
+import ru.hse.java.util.DictionaryImpl;
+import ru.hse.java.util.LinkedDictionary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+public class DictionarySerializationTests {
+
+    private static <K, V> byte[] write(DictionaryImpl<K, V> dictionary, ByteSerializer<K> keys,
+                                       ByteSerializer<V> values) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dictionary.writeTo(Channels.newChannel(out), keys, values);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        DictionaryImpl<String, String> dictionary = new DictionaryImpl<>();
+        Random random = new Random(14);
+        for (int i = 0; i < 100000; i++) {
+            dictionary.put("key" + random.nextInt(), i % 7 == 0 ? null : "value" + i);
+        }
+        dictionary.put("", "");
+        byte[] bytes = write(dictionary, ByteSerializer.STRING, ByteSerializer.STRING);
+        DictionaryImpl<String, String> loaded = DictionaryImpl.read(
+                Channels.newChannel(new ByteArrayInputStream(bytes)), ByteSerializer.STRING, ByteSerializer.STRING);
+        Assertions.assertEquals(dictionary.size(), loaded.size());
+        Assertions.assertEquals(new HashMap<>(dictionary), new HashMap<>(loaded));
+        Assertions.assertEquals(1, loaded.stats().getGrowCount());
+    }
+
+    @Test
+    public void testFileChannelAndLargeValues() throws IOException {
+        Path file = Files.createTempFile("dictionary", ".bin");
+        file.toFile().deleteOnExit();
+        DictionaryImpl<Integer, byte[]> dictionary = new DictionaryImpl<>();
+        for (int i = 0; i < 20; i++) {
+            byte[] value = new byte[i * 20000];
+            Arrays.fill(value, (byte) i);
+            dictionary.put(i, value);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            dictionary.writeTo(channel, ByteSerializer.INTEGER, ByteSerializer.BYTES);
+        }
+        DictionaryImpl<Integer, byte[]> loaded = new DictionaryImpl<>();
+        loaded.put(-1, new byte[0]);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            loaded.readFrom(channel, ByteSerializer.INTEGER, ByteSerializer.BYTES);
+        }
+        Assertions.assertEquals(21, loaded.size());
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals(i * 20000, loaded.get(i).length);
+            if (i > 0) {
+                Assertions.assertEquals((byte) i, loaded.get(i)[i * 20000 - 1]);
+            }
+        }
+    }
+
+    @Test
+    public void testLinkedOrderPreserved() throws IOException {
+        LinkedDictionary<Long, Integer> dictionary = new LinkedDictionary<>();
+        for (long i = 1000; i > 0; i--) {
+            dictionary.put(i * 31, (int) i);
+        }
+        byte[] bytes = write(dictionary, ByteSerializer.LONG, ByteSerializer.INTEGER);
+        LinkedDictionary<Long, Integer> loaded = new LinkedDictionary<>();
+        loaded.readFrom(Channels.newChannel(new ByteArrayInputStream(bytes)), ByteSerializer.LONG, ByteSerializer.INTEGER);
+        Assertions.assertEquals(new ArrayList<>(dictionary.entrySet()), new ArrayList<>(loaded.entrySet()));
+    }
+
+    @Test
+    public void testCompactEncoding() throws IOException {
+        DictionaryImpl<String, String> dictionary = new DictionaryImpl<>();
+        dictionary.put("a", null);
+        dictionary.put("b", "c");
+        // magic, версия, число пар и по байту на каждую длину
+        Assertions.assertEquals(4 + 1 + 1 + (1 + 1 + 1) + (1 + 1 + 1 + 1),
+                write(dictionary, ByteSerializer.STRING, ByteSerializer.STRING).length);
+    }
+
+    @Test
+    public void testBrokenStreams() throws IOException {
+        DictionaryImpl<String, String> dictionary = new DictionaryImpl<>();
+        for (int i = 0; i < 100; i++) {
+            dictionary.put("key" + i, "value" + i);
+        }
+        byte[] bytes = write(dictionary, ByteSerializer.STRING, ByteSerializer.STRING);
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+        Assertions.assertThrows(EOFException.class, () -> DictionaryImpl.read(
+                Channels.newChannel(new ByteArrayInputStream(truncated)), ByteSerializer.STRING, ByteSerializer.STRING));
+        byte[] foreign = "not a dictionary at all".getBytes();
+        Assertions.assertThrows(IOException.class, () -> DictionaryImpl.read(
+                Channels.newChannel(new ByteArrayInputStream(foreign)), ByteSerializer.STRING, ByteSerializer.STRING));
+        Assertions.assertThrows(EOFException.class, () -> DictionaryImpl.read(
+                Channels.newChannel(new ByteArrayInputStream(new byte[2])), ByteSerializer.STRING, ByteSerializer.STRING));
+    }
+
+    private static byte[] header(int... varints) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{0x44, 0x49, 0x43, 0x54});
+        for (int value : varints) {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testCorruptedLengths() {
+        // версия, число пар, длина ключа, длина значения + 1
+        List<byte[]> corrupted = List.of(
+                header(1, Integer.MAX_VALUE),
+                header(1, 1, Integer.MAX_VALUE),
+                header(1, 1, 0, Integer.MAX_VALUE),
+                header(1, 2, 1000000));
+        for (byte[] bytes : corrupted) {
+            Assertions.assertThrows(EOFException.class, () -> DictionaryImpl.read(
+                    Channels.newChannel(new ByteArrayInputStream(bytes)), ByteSerializer.STRING, ByteSerializer.STRING));
+        }
+        DictionaryImpl<String, String> dictionary = new DictionaryImpl<>();
+        Assertions.assertThrows(EOFException.class, () -> dictionary.readFrom(
+                Channels.newChannel(new ByteArrayInputStream(header(1, Integer.MAX_VALUE, 0, 1))),
+                ByteSerializer.STRING, ByteSerializer.STRING));
+        Assertions.assertEquals(Map.of("", ""), dictionary);
+    }
+}
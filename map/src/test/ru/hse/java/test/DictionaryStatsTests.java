@@ -0,0 +1,125 @@
+package ru.hse.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.hse.java.util.DictionaryImpl;
+import ru.hse.java.util.DictionaryStats;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+public class DictionaryStatsTests {
+
+    private static void assertConsistent(DictionaryStats stats) {
+        int[] histogram = stats.getBucketLengthHistogram();
+        long pairs = 0;
+        for (int length = 0; length < histogram.length; length++) {
+            pairs += (long) length * histogram[length];
+        }
+        Assertions.assertEquals(stats.getSize(), pairs);
+        Assertions.assertEquals(histogram.length - 1, stats.getMaxBucketLength());
+        Assertions.assertTrue(histogram[histogram.length - 1] > 0 || histogram.length == 1);
+    }
+
+    @Test
+    public void testGrowAndShrinkCounts() {
+        DictionaryImpl<Integer, Integer> dictionary = new DictionaryImpl<>();
+        DictionaryStats empty = dictionary.stats();
+        Assertions.assertEquals(0, empty.getSize());
+        Assertions.assertEquals(0, empty.getGrowCount());
+        Assertions.assertEquals(0, empty.getAverageBucketLength());
+        for (int i = 0; i < 10000; i++) {
+            dictionary.put(i, i);
+        }
+        DictionaryStats full = dictionary.stats();
+        Assertions.assertEquals(10000, full.getSize());
+        Assertions.assertTrue(full.getGrowCount() > 5);
+        Assertions.assertEquals(0, full.getShrinkCount());
+        Assertions.assertEquals(0.75, full.getLoadFactor());
+        Assertions.assertTrue(full.getLoad() <= 0.75 + 10.0 / full.getCapacity());
+        Assertions.assertTrue(full.getAverageBucketLength() >= 1);
+        Assertions.assertTrue(full.getRehashTimeNanos() > 0);
+        Assertions.assertEquals(full.getCapacity(), Arrays.stream(full.getBucketLengthHistogram()).sum());
+        assertConsistent(full);
+        for (int i = 0; i < 9990; i++) {
+            dictionary.remove(i);
+        }
+        DictionaryStats shrunk = dictionary.stats();
+        Assertions.assertEquals(full.getGrowCount(), shrunk.getGrowCount());
+        Assertions.assertTrue(shrunk.getShrinkCount() > 5);
+        Assertions.assertTrue(shrunk.getCapacity() < full.getCapacity());
+        assertConsistent(shrunk);
+        dictionary.clear();
+        Assertions.assertEquals(shrunk.getShrinkCount(), dictionary.stats().getShrinkCount());
+    }
+
+    @Test
+    public void testBulkOperationsResizeOnce() {
+        DictionaryImpl<Integer, Integer> source = new DictionaryImpl<>();
+        for (int i = 0; i < 100000; i++) {
+            source.put(i, i);
+        }
+        DictionaryImpl<Integer, Integer> dictionary = new DictionaryImpl<>();
+        dictionary.putAll(source);
+        Assertions.assertEquals(1, dictionary.stats().getGrowCount());
+        dictionary.removeAll(source.keySet());
+        Assertions.assertEquals(1, dictionary.stats().getShrinkCount());
+    }
+
+    @Test
+    public void testStatsDoNotFinishMigration() {
+        DictionaryImpl<String, Integer> dictionary = new DictionaryImpl<>(0.75, 2, 10, 1);
+        for (int i = 0; i < 5000 || !dictionary.isRehashing(); i++) {
+            dictionary.put("key" + i, i);
+        }
+        DictionaryStats stats = dictionary.stats();
+        Assertions.assertTrue(stats.isRehashing());
+        Assertions.assertTrue(dictionary.isRehashing());
+        assertConsistent(stats);
+    }
+
+    @Test
+    public void testCollidingKeysHistogram() {
+        DictionaryImpl<String, Integer> dictionary = new DictionaryImpl<>();
+        List<String> keys = CollidingKeysTests.collidingStrings(7);
+        for (String key : keys) {
+            dictionary.put(key, 0);
+        }
+        DictionaryStats stats = dictionary.stats();
+        Assertions.assertEquals(keys.size(), stats.getMaxBucketLength());
+        Assertions.assertEquals(keys.size(), stats.getAverageBucketLength());
+        Assertions.assertTrue(stats.toString().contains("maxBucketLength=" + keys.size()));
+    }
+
+    @Test
+    public void testMBean() throws JMException {
+        DictionaryImpl<Integer, Integer> dictionary = new DictionaryImpl<>();
+        ObjectName name = dictionary.registerStatsMBean("test \"stats\"");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            Assertions.assertEquals(0, server.getAttribute(name, "Size"));
+            for (int i = 0; i < 1000; i++) {
+                dictionary.put(i, i);
+            }
+            Assertions.assertEquals(1000, server.getAttribute(name, "Size"));
+            Assertions.assertEquals(dictionary.stats().getGrowCount(), server.getAttribute(name, "GrowCount"));
+            Assertions.assertEquals(false, server.getAttribute(name, "Rehashing"));
+            int[] histogram = (int[]) server.getAttribute(name, "BucketLengthHistogram");
+            Assertions.assertArrayEquals(dictionary.stats().getBucketLengthHistogram(), histogram);
+            // счётчики текущие, а длины корзин -- из снимка, сделанного при первом чтении
+            for (int i = 1000; i < 2000; i++) {
+                dictionary.put(i, i);
+            }
+            Assertions.assertEquals(2000, server.getAttribute(name, "Size"));
+            Assertions.assertArrayEquals(histogram, (int[]) server.getAttribute(name, "BucketLengthHistogram"));
+            Assertions.assertThrows(JMException.class, () -> dictionary.registerStatsMBean("test \"stats\""));
+        } finally {
+            server.unregisterMBean(name);
+        }
+        Assertions.assertFalse(server.isRegistered(name));
+    }
+}
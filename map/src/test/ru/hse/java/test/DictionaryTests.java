@@ -1,6 +1,9 @@
 package ru.hse.java.test;
 
+import ru.hse.java.util.Dictionary;
 import ru.hse.java.util.DictionaryImpl;
+import ru.hse.java.util.DictionaryStats;
+import ru.hse.java.util.LinkedDictionary;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -501,4 +504,281 @@ public class DictionaryTests {
         }
         Assertions.assertEquals(map.size(), 0);
     }
+
+    @Test
+    void testIncrementalStress() {
+        Map<Integer, Integer> map = new DictionaryImpl<>(0.75, 2, 10, 1);
+        Map<Integer, Integer> hashMap = new HashMap<>();
+        Random random = new Random(14);
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(20000);
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(hashMap.remove(key), map.remove(key));
+            } else {
+                Assertions.assertEquals(hashMap.put(key, i), map.put(key, i));
+            }
+            Assertions.assertEquals(hashMap.size(), map.size());
+            Assertions.assertEquals(hashMap.get(i % 20000), map.get(i % 20000));
+        }
+        Assertions.assertEquals(hashMap.entrySet(), map.entrySet());
+    }
+
+    @Test
+    void testIncrementalMigrationFinishes() {
+        DictionaryImpl<Integer, Integer> map = new DictionaryImpl<>(0.75, 2, 10, 2);
+        int i = 0;
+        while (!map.isRehashing()) {
+            map.put(i, i);
+            i++;
+        }
+        for (int j = 0; j < i; j++) {
+            Assertions.assertEquals(j, map.get(j));
+        }
+        for (int j = 0; j < 100 && map.isRehashing(); j++) {
+            map.containsKey(j);
+        }
+        Assertions.assertFalse(map.isRehashing());
+        for (int j = 0; j < i; j++) {
+            Assertions.assertEquals(j, map.get(j));
+        }
+    }
+
+    @Test
+    void testIncrementalIteratorDuringMigration() {
+        DictionaryImpl<Integer, Integer> map = new DictionaryImpl<>(0.75, 2, 10, 1);
+        int i = 0;
+        while (!map.isRehashing()) {
+            map.put(i, i * 2 + 1);
+            i++;
+        }
+        Set<Integer> keys = new HashSet<>(map.keySet());
+        Assertions.assertEquals(i, keys.size());
+        for (int j = 0; j < i; j++) {
+            Assertions.assertTrue(keys.contains(j));
+        }
+    }
+
+    @Test
+    void testNegativeMigrationStep() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new DictionaryImpl<>(0.75, 2, 10, -1));
+    }
+
+    @Test
+    void testValueIndexStress() {
+        DictionaryImpl<Integer, Integer> dictionary = new DictionaryImpl<>(0.75, 2, 10, 3);
+        dictionary.put(-1, 7);
+        dictionary.enableValueIndex();
+        Assertions.assertTrue(dictionary.isValueIndexEnabled());
+        HashMap<Integer, Integer> hashMap = new HashMap<>(Map.of(-1, 7));
+        Random random = new Random(14);
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(500);
+            int value = random.nextInt(50);
+            int operation = random.nextInt(5);
+            if (operation == 0) {
+                Assertions.assertEquals(hashMap.remove(key), dictionary.remove(key));
+            } else if (operation == 1) {
+                Iterator<Map.Entry<Integer, Integer>> it = dictionary.entrySet().iterator();
+                if (it.hasNext()) {
+                    Map.Entry<Integer, Integer> entry = it.next();
+                    if (random.nextBoolean()) {
+                        it.remove();
+                        hashMap.remove(entry.getKey());
+                    } else {
+                        entry.setValue(value);
+                        hashMap.put(entry.getKey(), value);
+                    }
+                }
+            } else {
+                Assertions.assertEquals(hashMap.put(key, value), dictionary.put(key, value));
+            }
+            int probe = random.nextInt(60);
+            Assertions.assertEquals(hashMap.containsValue(probe), dictionary.containsValue(probe));
+        }
+        dictionary.values().removeIf(value -> value % 2 == 0);
+        hashMap.values().removeIf(value -> value % 2 == 0);
+        for (int value = 0; value < 50; value++) {
+            Assertions.assertEquals(hashMap.containsValue(value), dictionary.containsValue(value));
+        }
+        dictionary.clear();
+        Assertions.assertFalse(dictionary.containsValue(1));
+        dictionary.put(1, 1);
+        Assertions.assertTrue(dictionary.containsValue(1));
+    }
+
+    @Test
+    void testValueIndexWithEviction() {
+        LinkedDictionary<Integer, String> cache = LinkedDictionary.lru(2);
+        cache.enableValueIndex();
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(3, "c");
+        Assertions.assertFalse(cache.containsValue("a"));
+        Assertions.assertTrue(cache.containsValue("b"));
+        Assertions.assertTrue(cache.containsValue("c"));
+        Iterator<Integer> it = cache.keySet().iterator();
+        it.next();
+        it.remove();
+        Assertions.assertFalse(cache.containsValue("b"));
+    }
+
+    private static int capacityOf(DictionaryImpl<?, ?> dictionary) {
+        return Arrays.stream(dictionary.bucketLengthHistogram()).sum();
+    }
+
+    @Test
+    void testPutAllPresizedCapacity() {
+        HashMap<Integer, Integer> source = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            source.put(i * 7, i);
+        }
+        DictionaryImpl<Integer, Integer> sequential = new DictionaryImpl<>();
+        for (Map.Entry<Integer, Integer> entry : source.entrySet()) {
+            sequential.put(entry.getKey(), entry.getValue());
+        }
+        DictionaryImpl<Integer, Integer> bulk = new DictionaryImpl<>();
+        bulk.put(-1, -1);
+        bulk.putAll(source);
+        Assertions.assertEquals(source.size() + 1, bulk.size());
+        Assertions.assertEquals(capacityOf(sequential), capacityOf(bulk));
+        for (Map.Entry<Integer, Integer> entry : source.entrySet()) {
+            Assertions.assertEquals(entry.getValue(), bulk.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    void testGetAll() {
+        DictionaryImpl<String, Integer> dictionary = new DictionaryImpl<>();
+        for (int i = 0; i < 1000; i++) {
+            dictionary.put("key" + i, i % 10 == 0 ? null : i);
+        }
+        List<String> keys = new ArrayList<>();
+        for (int i = 990; i < 1010; i++) {
+            keys.add("key" + i);
+        }
+        Map<String, Integer> result = dictionary.getAll(keys);
+        Assertions.assertEquals(10, result.size());
+        Assertions.assertTrue(result.containsKey("key990"));
+        Assertions.assertNull(result.get("key990"));
+        Assertions.assertEquals(995, result.get("key995"));
+        Assertions.assertFalse(result.containsKey("key1000"));
+        Assertions.assertTrue(dictionary.getAll(List.of()).isEmpty());
+    }
+
+    @Test
+    void testGetAllAccessOrder() {
+        LinkedDictionary<Integer, Integer> cache = LinkedDictionary.lru(3);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.put(3, 3);
+        cache.getAll(List.of(1, 5));
+        cache.put(4, 4);
+        Assertions.assertEquals(List.of(3, 1, 4), new ArrayList<>(cache.keySet()));
+    }
+
+    @Test
+    void testRemoveAllShrinksOnce() {
+        DictionaryImpl<Integer, Integer> dictionary = new DictionaryImpl<>(0.75, 2, 10, 2);
+        DictionaryImpl<Integer, Integer> expected = new DictionaryImpl<>();
+        List<Integer> removed = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            dictionary.put(i, i);
+            if (i % 50 == 0) {
+                expected.put(i, i);
+            } else {
+                removed.add(i);
+            }
+        }
+        removed.add(-5);
+        Assertions.assertTrue(dictionary.removeAll(removed));
+        Assertions.assertFalse(dictionary.removeAll(List.of(-5, 1)));
+        Assertions.assertEquals(new HashMap<>(expected), new HashMap<>(dictionary));
+        Assertions.assertEquals(capacityOf(expected), capacityOf(dictionary));
+        dictionary.put(3, 3);
+        Assertions.assertEquals(3, dictionary.get(3));
+    }
+
+    @Test
+    void testBulkDefaults() {
+        Dictionary<String, String> dictionary = DictionaryImpl.openAddressing();
+        dictionary.put("a", "1");
+        dictionary.put("b", null);
+        Assertions.assertEquals(Map.of("a", "1"), dictionary.getAll(List.of("a", "c")));
+        Assertions.assertTrue(dictionary.getAll(List.of("b")).containsKey("b"));
+        Assertions.assertTrue(dictionary.removeAll(List.of("a", "b", "c")));
+        Assertions.assertTrue(dictionary.isEmpty());
+    }
+
+    @Test
+    void testIncrementalMigrationEndsBeforeNextResize() {
+        for (int step : new int[]{1, 3}) {
+            DictionaryImpl<Integer, Integer> map = new DictionaryImpl<>(0.75, 2, 0, step);
+            // перенос, не законченный к следующему resize, доделывается внутри одного put целиком,
+            //   и тогда новый перенос начинается без перехода isRehashing из false в true
+            int migrations = 0;
+            boolean rehashing = false;
+            for (int i = 0; i < 5000; i++) {
+                map.put(i, i);
+                if (!rehashing && map.isRehashing()) {
+                    migrations++;
+                }
+                rehashing = map.isRehashing();
+            }
+            Assertions.assertEquals(map.stats().getGrowCount(), migrations);
+            for (int i = 0; i < 5000; i++) {
+                map.remove(i);
+                if (!rehashing && map.isRehashing()) {
+                    migrations++;
+                }
+                rehashing = map.isRehashing();
+            }
+            DictionaryStats stats = map.stats();
+            Assertions.assertEquals(stats.getGrowCount() + stats.getShrinkCount(), migrations);
+            Assertions.assertTrue(stats.getShrinkCount() > 0);
+        }
+    }
+
+    @Test
+    void testGetAllKeepsKeyOrder() {
+        List<DictionaryImpl<Integer, Integer>> dictionaries = List.of(
+                new DictionaryImpl<>(), new LinkedDictionary<>(), new LinkedDictionary<>(true));
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 999; i >= 0; i -= 3) {
+            keys.add(i);
+        }
+        keys.add(2000);
+        for (DictionaryImpl<Integer, Integer> dictionary : dictionaries) {
+            for (int i = 0; i < 1000; i++) {
+                dictionary.put(i, -i);
+            }
+            Map<Integer, Integer> result = dictionary.getAll(keys);
+            Assertions.assertEquals(keys.subList(0, keys.size() - 1), new ArrayList<>(result.keySet()));
+            Assertions.assertEquals(-999, result.get(999));
+        }
+        Dictionary<Integer, Integer> openAddressing = DictionaryImpl.openAddressing();
+        for (int i = 0; i < 100; i++) {
+            openAddressing.put(i, i);
+        }
+        Assertions.assertEquals(List.of(70, 3, 41), new ArrayList<>(openAddressing.getAll(List.of(70, 3, 41)).keySet()));
+    }
+
+    @Test
+    void testRemoveAndRemoveAllShrinkAlike() {
+        DictionaryImpl<Integer, Integer> one = new DictionaryImpl<>(0.75, 2, 10);
+        DictionaryImpl<Integer, Integer> bulk = new DictionaryImpl<>(0.75, 2, 10);
+        for (int i = 0; i < 10000; i++) {
+            one.put(i, i);
+            bulk.put(i, i);
+        }
+        List<Integer> removed = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            removed.add(i);
+            one.remove(i);
+        }
+        bulk.removeAll(removed);
+        Assertions.assertEquals(capacityOf(one), capacityOf(bulk));
+        Assertions.assertTrue(one.isEmpty());
+        one.put(1, 1);
+        Assertions.assertEquals(1, one.get(1));
+    }
 }
@@ -0,0 +1,75 @@
+package ru.hse.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.hse.java.util.DictionaryImpl;
+import ru.hse.java.util.HashIndexing;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+/*
+ * Распределение длин корзин для последовательных целых и строковых ключей
+ */
+public class HashIndexingTests {
+    private static final int SIZE = 100000;
+
+    private static <K> int[] histogram(HashIndexing indexing, IntFunction<K> keys) {
+        DictionaryImpl<K, Integer> map = new DictionaryImpl<>(0.75, 2, 10, 0, indexing);
+        for (int i = 0; i < SIZE; i++) {
+            map.put(keys.apply(i), i);
+        }
+        Assertions.assertEquals(SIZE, map.size());
+        for (int i = 0; i < SIZE; i++) {
+            Assertions.assertEquals(i, map.get(keys.apply(i)));
+        }
+        return map.bucketLengthHistogram();
+    }
+
+    private static void assertHistogram(int[] histogram, int maxLength) {
+        int entries = 0;
+        for (int length = 0; length < histogram.length; length++) {
+            entries += length * histogram[length];
+        }
+        Assertions.assertEquals(SIZE, entries);
+        Assertions.assertTrue(histogram.length - 1 <= maxLength,
+                "max bucket length " + (histogram.length - 1) + " " + Arrays.toString(histogram));
+    }
+
+    @Test
+    public void testModuloSequentialIntegers() {
+        assertHistogram(histogram(HashIndexing.MODULO, i -> i), 2);
+    }
+
+    @Test
+    public void testPowerOfTwoSequentialIntegers() {
+        assertHistogram(histogram(HashIndexing.POWER_OF_TWO, i -> i), 12);
+    }
+
+    @Test
+    public void testPowerOfTwoStrings() {
+        assertHistogram(histogram(HashIndexing.POWER_OF_TWO, i -> "key" + i), 12);
+    }
+
+    @Test
+    public void testPowerOfTwoPoorLowBits() {
+        assertHistogram(histogram(HashIndexing.POWER_OF_TWO, i -> i << 10), 12);
+    }
+
+    @Test
+    public void testPowerOfTwoRemove() {
+        Map<Integer, Integer> map = new DictionaryImpl<>(0.75, 2, 10, 1, HashIndexing.POWER_OF_TWO);
+        Map<Integer, Integer> hashMap = new HashMap<>();
+        Random random = new Random(14);
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt();
+            if (random.nextInt(3) == 0 && !hashMap.isEmpty()) {
+                key = hashMap.keySet().iterator().next();
+                Assertions.assertEquals(hashMap.remove(key), map.remove(key));
+            } else {
+                Assertions.assertEquals(hashMap.put(key, i), map.put(key, i));
+            }
+        }
+        Assertions.assertEquals(hashMap.entrySet(), map.entrySet());
+    }
+}
@@ -0,0 +1,85 @@
+package ru.hse.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.hse.java.util.Dictionary;
+import ru.hse.java.util.DictionaryImpl;
+import ru.hse.java.util.ImmutableDictionary;
+
+import java.util.*;
+
+public class ImmutableDictionaryTests {
+
+    @Test
+    public void testFreezeCopiesContents() {
+        DictionaryImpl<String, Integer> dictionary = new DictionaryImpl<>();
+        HashMap<String, Integer> hashMap = new HashMap<>();
+        Random random = new Random(14);
+        for (int i = 0; i < 10000; i++) {
+            String key = "key" + random.nextInt(20000);
+            dictionary.put(key, i);
+            hashMap.put(key, i);
+        }
+        Dictionary<String, Integer> frozen = dictionary.freeze();
+        Assertions.assertEquals(hashMap.size(), frozen.size());
+        for (int i = 0; i < 20000; i++) {
+            String key = "key" + i;
+            Assertions.assertEquals(hashMap.get(key), frozen.get(key));
+            Assertions.assertEquals(hashMap.containsKey(key), frozen.containsKey(key));
+        }
+        Assertions.assertEquals(hashMap.entrySet(), frozen.entrySet());
+        Assertions.assertEquals(hashMap.keySet(), frozen.keySet());
+        Assertions.assertEquals(hashMap.size(), frozen.values().size());
+        dictionary.clear();
+        Assertions.assertEquals(hashMap.size(), frozen.size());
+    }
+
+    @Test
+    public void testCollidingKeysAndNullValues() {
+        Map<Object, Object> source = new HashMap<>();
+        for (String key : CollidingKeysTests.collidingStrings(8)) {
+            source.put(key, key.length());
+        }
+        source.put(new CollidingKeysTests.BadKey(1), null);
+        ImmutableDictionary<Object, Object> frozen = ImmutableDictionary.copyOf(source);
+        Assertions.assertEquals(source.size(), frozen.size());
+        for (String key : CollidingKeysTests.collidingStrings(8)) {
+            Assertions.assertEquals(16, frozen.get(key));
+        }
+        Assertions.assertTrue(frozen.containsKey(new CollidingKeysTests.BadKey(1)));
+        Assertions.assertNull(frozen.get(new CollidingKeysTests.BadKey(1)));
+        Assertions.assertFalse(frozen.containsKey(new CollidingKeysTests.BadKey(2)));
+        Assertions.assertTrue(frozen.containsValue(null));
+        Assertions.assertTrue(frozen.containsValue(16));
+        Assertions.assertFalse(frozen.containsValue(17));
+    }
+
+    @Test
+    public void testMutationThrows() {
+        ImmutableDictionary<Integer, Integer> frozen = ImmutableDictionary.copyOf(Map.of(1, 1, 2, 2));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> frozen.put(3, 3));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> frozen.remove(1));
+        Assertions.assertThrows(UnsupportedOperationException.class, frozen::clear);
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> frozen.putAll(Map.of(4, 4)));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> frozen.removeAll(List.of(1)));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> frozen.merge(1, 1, Integer::sum));
+        Iterator<Integer> it = frozen.keySet().iterator();
+        it.next();
+        Assertions.assertThrows(UnsupportedOperationException.class, it::remove);
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> frozen.entrySet().iterator().next().setValue(5));
+        Assertions.assertEquals(2, frozen.size());
+    }
+
+    @Test
+    public void testEmptyAndCopyOfSelf() {
+        ImmutableDictionary<String, String> empty = ImmutableDictionary.copyOf(new DictionaryImpl<>());
+        Assertions.assertTrue(empty.isEmpty());
+        Assertions.assertNull(empty.get("a"));
+        Assertions.assertFalse(empty.entrySet().iterator().hasNext());
+        Assertions.assertThrows(NoSuchElementException.class, () -> empty.values().iterator().next());
+        Assertions.assertSame(empty, ImmutableDictionary.copyOf(empty));
+        Assertions.assertSame(empty, empty.freeze());
+        Assertions.assertThrows(NullPointerException.class, () -> empty.get(null));
+    }
+}
@@ -0,0 +1,134 @@
+package ru.hse.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.hse.java.util.LinkedDictionary;
+
+import java.util.*;
+
+public class LinkedDictionaryTests {
+
+    @Test
+    public void testInsertionOrder() {
+        LinkedDictionary<Integer, Integer> map = new LinkedDictionary<>();
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(14);
+        for (int i = 0; i < 1000; i++) {
+            int key = random.nextInt();
+            if (map.put(key, i) == null) {
+                expected.add(key);
+            }
+        }
+        Assertions.assertEquals(expected, new ArrayList<>(map.keySet()));
+        map.get(expected.get(0));
+        Assertions.assertEquals(expected, new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void testAccessOrder() {
+        LinkedDictionary<Integer, Integer> map = new LinkedDictionary<>(true);
+        for (int i = 0; i < 5; i++) {
+            map.put(i, i);
+        }
+        map.get(1);
+        map.put(3, 30);
+        map.containsKey(0);
+        Assertions.assertEquals(List.of(0, 2, 4, 1, 3), new ArrayList<>(map.keySet()));
+        Assertions.assertEquals(List.of(0, 2, 4, 1, 30), new ArrayList<>(map.values()));
+    }
+
+    @Test
+    public void testLruEviction() {
+        LinkedDictionary<Integer, Integer> cache = LinkedDictionary.lru(3);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.put(3, 3);
+        cache.get(1);
+        cache.put(4, 4);
+        Assertions.assertEquals(3, cache.size());
+        Assertions.assertFalse(cache.containsKey(2));
+        Assertions.assertEquals(List.of(3, 1, 4), new ArrayList<>(cache.keySet()));
+    }
+
+    @Test
+    public void testLruStress() {
+        int maxSize = 100;
+        LinkedDictionary<Integer, Integer> cache = LinkedDictionary.lru(maxSize);
+        LinkedHashMap<Integer, Integer> reference = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                return size() > maxSize;
+            }
+        };
+        Random random = new Random(14);
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(300);
+            int operation = random.nextInt(4);
+            if (operation == 0) {
+                Assertions.assertEquals(reference.remove(key), cache.remove(key));
+            } else if (operation == 1) {
+                Assertions.assertEquals(reference.get(key), cache.get(key));
+            } else {
+                Assertions.assertEquals(reference.put(key, i), cache.put(key, i));
+            }
+            Assertions.assertTrue(cache.size() <= maxSize);
+        }
+        Assertions.assertEquals(new ArrayList<>(reference.entrySet()), new ArrayList<>(cache.entrySet()));
+    }
+
+    @Test
+    public void testCustomRemoveEldest() {
+        LinkedDictionary<String, Integer> map = new LinkedDictionary<>() {
+            @Override
+            protected boolean removeEldestEntry(Entry<String, Integer> eldest) {
+                return eldest.getValue() < 0;
+            }
+        };
+        map.put("a", -1);
+        Assertions.assertTrue(map.isEmpty());
+        map.put("b", 1);
+        map.put("c", -2);
+        Assertions.assertEquals(List.of("b", "c"), new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        LinkedDictionary<Integer, Integer> map = new LinkedDictionary<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        Iterator<Integer> it = map.keySet().iterator();
+        Assertions.assertThrows(IllegalStateException.class, it::remove);
+        while (it.hasNext()) {
+            if (it.next() % 2 == 0) {
+                it.remove();
+            }
+        }
+        Assertions.assertEquals(50, map.size());
+        List<Integer> keys = new ArrayList<>(map.keySet());
+        for (int i = 0; i < 50; i++) {
+            Assertions.assertEquals(2 * i + 1, keys.get(i));
+            Assertions.assertNull(map.get(2 * i));
+        }
+        Assertions.assertThrows(NoSuchElementException.class, it::next);
+    }
+
+    @Test
+    public void testClear() {
+        LinkedDictionary<Integer, Integer> map = new LinkedDictionary<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        map.clear();
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertFalse(map.entrySet().iterator().hasNext());
+        map.put(5, 5);
+        Assertions.assertEquals(List.of(5), new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void testWrongMaxSize() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> LinkedDictionary.lru(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LinkedDictionary<>(true, -1));
+    }
+}
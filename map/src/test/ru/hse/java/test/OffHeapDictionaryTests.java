@@ -0,0 +1,228 @@
+package ru.hse.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.hse.java.util.ByteSerializer;
+import ru.hse.java.util.OffHeapDictionary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class OffHeapDictionaryTests {
+
+    private static Path tempFile() throws IOException {
+        Path file = Files.createTempFile("dictionary", ".bin");
+        Files.delete(file);
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void testStress() {
+        OffHeapDictionary<String, String> dictionary =
+                new OffHeapDictionary<>(ByteSerializer.STRING, ByteSerializer.STRING);
+        HashMap<String, String> hashMap = new HashMap<>();
+        Random random = new Random(14);
+        for (int i = 0; i < 100000; i++) {
+            String key = "key" + random.nextInt(3000);
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(hashMap.remove(key), dictionary.remove(key));
+            } else {
+                String value = "value" + i;
+                Assertions.assertEquals(hashMap.put(key, value), dictionary.put(key, value));
+            }
+            Assertions.assertEquals(hashMap.size(), dictionary.size());
+        }
+        Assertions.assertEquals(hashMap.entrySet(), dictionary.entrySet());
+        for (int i = 0; i < 3000; i++) {
+            String key = "key" + i;
+            Assertions.assertEquals(hashMap.get(key), dictionary.get(key));
+            Assertions.assertEquals(hashMap.containsKey(key), dictionary.containsKey(key));
+        }
+    }
+
+    @Test
+    void testByteArrayValues() {
+        OffHeapDictionary<String, byte[]> dictionary =
+                new OffHeapDictionary<>(ByteSerializer.STRING, ByteSerializer.BYTES);
+        for (int i = 0; i < 1000; i++) {
+            byte[] value = new byte[i];
+            Arrays.fill(value, (byte) i);
+            dictionary.put(Integer.toString(i), value);
+        }
+        for (int i = 0; i < 1000; i++) {
+            byte[] value = dictionary.get(Integer.toString(i));
+            Assertions.assertEquals(i, value.length);
+            if (i > 0) {
+                Assertions.assertEquals((byte) i, value[i - 1]);
+            }
+        }
+    }
+
+    @Test
+    void testNullValue() {
+        OffHeapDictionary<Integer, String> dictionary =
+                new OffHeapDictionary<>(ByteSerializer.INTEGER, ByteSerializer.STRING);
+        dictionary.put(1, null);
+        Assertions.assertTrue(dictionary.containsKey(1));
+        Assertions.assertNull(dictionary.get(1));
+        Assertions.assertTrue(dictionary.containsValue(null));
+        Assertions.assertNull(dictionary.put(1, "a"));
+        Assertions.assertEquals("a", dictionary.get(1));
+    }
+
+    @Test
+    void testNullKey() {
+        OffHeapDictionary<String, String> dictionary =
+                new OffHeapDictionary<>(ByteSerializer.STRING, ByteSerializer.STRING);
+        Assertions.assertThrows(NullPointerException.class, () -> dictionary.get(null));
+    }
+
+    @Test
+    void testOverwriteCompacts() {
+        OffHeapDictionary<Long, String> dictionary =
+                new OffHeapDictionary<>(ByteSerializer.LONG, ByteSerializer.STRING);
+        String big = "x".repeat(1000);
+        for (int i = 0; i < 10000; i++) {
+            dictionary.put((long) (i % 10), big + i);
+        }
+        Assertions.assertEquals(10, dictionary.size());
+        for (long key = 0; key < 10; key++) {
+            Assertions.assertEquals(big + (9990 + key), dictionary.get(key));
+        }
+    }
+
+    @Test
+    void testIteratorRemove() {
+        OffHeapDictionary<Integer, Integer> dictionary =
+                new OffHeapDictionary<>(ByteSerializer.INTEGER, ByteSerializer.INTEGER);
+        for (int i = 0; i < 100; i++) {
+            dictionary.put(i, i);
+        }
+        Iterator<Integer> it = dictionary.values().iterator();
+        Assertions.assertThrows(IllegalStateException.class, it::remove);
+        while (it.hasNext()) {
+            if (it.next() % 2 == 0) {
+                it.remove();
+            }
+        }
+        Assertions.assertEquals(50, dictionary.size());
+        Assertions.assertNull(dictionary.get(10));
+        Assertions.assertEquals(11, dictionary.get(11));
+        dictionary.entrySet().iterator().next().setValue(-1);
+        Assertions.assertTrue(dictionary.containsValue(-1));
+    }
+
+    @Test
+    void testPersistence() throws IOException {
+        Path file = tempFile();
+        try (OffHeapDictionary<String, String> dictionary =
+                     OffHeapDictionary.open(file, ByteSerializer.STRING, ByteSerializer.STRING)) {
+            for (int i = 0; i < 10000; i++) {
+                dictionary.put("key" + i, "value" + i);
+            }
+            for (int i = 0; i < 10000; i += 2) {
+                dictionary.remove("key" + i);
+            }
+            dictionary.put("key1", "changed");
+        }
+        try (OffHeapDictionary<String, String> dictionary =
+                     OffHeapDictionary.open(file, ByteSerializer.STRING, ByteSerializer.STRING)) {
+            Assertions.assertEquals(5000, dictionary.size());
+            Assertions.assertEquals("changed", dictionary.get("key1"));
+            Assertions.assertEquals("value3", dictionary.get("key3"));
+            Assertions.assertNull(dictionary.get("key2"));
+            dictionary.compact();
+            Assertions.assertEquals(5000, dictionary.size());
+            Assertions.assertEquals("value9999", dictionary.get("key9999"));
+        }
+    }
+
+    @Test
+    void testOpenForeignFile() throws IOException {
+        Path file = tempFile();
+        Files.write(file, "definitely not a dictionary".getBytes());
+        Assertions.assertThrows(IOException.class,
+                () -> OffHeapDictionary.open(file, ByteSerializer.STRING, ByteSerializer.STRING));
+    }
+
+    // длина ключа первой записи лежит сразу после заголовка файла, флага записи и хеша
+    @Test
+    void testOpenCorruptedRecordLength() throws IOException {
+        Path file = tempFile();
+        try (OffHeapDictionary<String, String> dictionary =
+                     OffHeapDictionary.open(file, ByteSerializer.STRING, ByteSerializer.STRING)) {
+            dictionary.put("key", "value");
+        }
+        byte[] original = Files.readAllBytes(file);
+        for (int keyLength : new int[]{-13, -1, 1 << 20}) {
+            byte[] corrupted = original.clone();
+            ByteBuffer.wrap(corrupted).putInt(13, keyLength);
+            Files.write(file, corrupted);
+            Assertions.assertThrows(IOException.class,
+                    () -> OffHeapDictionary.open(file, ByteSerializer.STRING, ByteSerializer.STRING));
+        }
+    }
+
+    @Test
+    void testClear() {
+        OffHeapDictionary<String, String> dictionary =
+                new OffHeapDictionary<>(ByteSerializer.STRING, ByteSerializer.STRING);
+        for (int i = 0; i < 100; i++) {
+            dictionary.put("key" + i, "value");
+        }
+        dictionary.clear();
+        Assertions.assertTrue(dictionary.isEmpty());
+        Assertions.assertNull(dictionary.get("key1"));
+        dictionary.put("key1", "value");
+        Assertions.assertEquals(1, dictionary.size());
+    }
+
+    @Test
+    void testSetValueDuringIteration() {
+        for (int n : new int[]{1400, 20000}) {
+            OffHeapDictionary<Integer, String> dictionary =
+                    new OffHeapDictionary<>(ByteSerializer.INTEGER, ByteSerializer.STRING);
+            for (int i = 0; i < n; i++) {
+                dictionary.put(i, Integer.toString(i));
+            }
+            for (int i = 0; i < n; i += 3) {
+                dictionary.remove(i);
+                dictionary.put(i, Integer.toString(i));
+            }
+            // длина значения то сохраняется, то растёт: 8 -> 9 переписывается на месте, 9 -> 10 дописывается
+            int visited = 0;
+            for (Map.Entry<Integer, String> entry : dictionary.entrySet()) {
+                entry.setValue(Integer.toString(Integer.parseInt(entry.getValue()) + 1));
+                visited++;
+            }
+            Assertions.assertEquals(n, visited);
+            Assertions.assertEquals(n, dictionary.size());
+            for (int i = 0; i < n; i++) {
+                Assertions.assertEquals(Integer.toString(i + 1), dictionary.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testIteratorFailsFast() {
+        OffHeapDictionary<Integer, Integer> dictionary =
+                new OffHeapDictionary<>(ByteSerializer.INTEGER, ByteSerializer.INTEGER);
+        for (int i = 0; i < 10; i++) {
+            dictionary.put(i, i);
+        }
+        Iterator<Integer> it = dictionary.keySet().iterator();
+        it.next();
+        dictionary.put(0, 100);
+        it.next();
+        dictionary.put(100, 100);
+        Assertions.assertThrows(ConcurrentModificationException.class, it::next);
+        Iterator<Integer> removed = dictionary.keySet().iterator();
+        removed.next();
+        dictionary.remove(5);
+        Assertions.assertThrows(ConcurrentModificationException.class, removed::remove);
+    }
+}
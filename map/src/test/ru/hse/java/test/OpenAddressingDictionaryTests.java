@@ -0,0 +1,152 @@
+package ru.hse.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.hse.java.util.Dictionary;
+import ru.hse.java.util.DictionaryImpl;
+import ru.hse.java.util.OpenAddressingDictionary;
+
+import java.util.*;
+
+public class OpenAddressingDictionaryTests {
+
+    @Test
+    public void testStress() {
+        Dictionary<Integer, Integer> dictionary = DictionaryImpl.openAddressing();
+        HashMap<Integer, Integer> hashMap = new HashMap<>();
+        Random random = new Random(14);
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(5000);
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                Assertions.assertEquals(hashMap.remove(key), dictionary.remove(key));
+            } else {
+                Assertions.assertEquals(hashMap.put(key, i), dictionary.put(key, i));
+            }
+            Assertions.assertEquals(hashMap.size(), dictionary.size());
+        }
+        Assertions.assertEquals(hashMap.entrySet(), dictionary.entrySet());
+        for (int key = 0; key < 5000; key++) {
+            Assertions.assertEquals(hashMap.containsKey(key), dictionary.containsKey(key));
+            Assertions.assertEquals(hashMap.get(key), dictionary.get(key));
+        }
+    }
+
+    @Test
+    void testGetNullKey() {
+        Dictionary<Integer, Integer> dictionary = new OpenAddressingDictionary<>();
+        Assertions.assertThrows(NullPointerException.class, () -> dictionary.get(null));
+    }
+
+    @Test
+    void testWrongLoadFactor() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new OpenAddressingDictionary<>(1.5));
+    }
+
+    @Test
+    void testCollidingKeys() {
+        Dictionary<String, Integer> dictionary = new OpenAddressingDictionary<>();
+        dictionary.put("Aa", 1);
+        dictionary.put("BB", 2);
+        dictionary.remove("Aa");
+        Assertions.assertEquals(2, dictionary.get("BB"));
+        Assertions.assertNull(dictionary.put("Aa", 3));
+        Assertions.assertEquals(3, dictionary.get("Aa"));
+        Assertions.assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void testContainsNullValue() {
+        Dictionary<Integer, Integer> dictionary = new OpenAddressingDictionary<>();
+        dictionary.put(1, null);
+        Assertions.assertTrue(dictionary.containsKey(1));
+        Assertions.assertTrue(dictionary.containsValue(null));
+    }
+
+    @Test
+    void testRemoveDecreaseCapacity() {
+        Dictionary<Integer, Integer> dictionary = new OpenAddressingDictionary<>();
+        for (int i = 0; i < 10000; i++) {
+            dictionary.put(i, i);
+        }
+        for (int i = 0; i < 9990; i++) {
+            Assertions.assertEquals(i, dictionary.remove(i));
+        }
+        Assertions.assertEquals(10, dictionary.size());
+        for (int i = 9990; i < 10000; i++) {
+            Assertions.assertEquals(i, dictionary.get(i));
+        }
+    }
+
+    @Test
+    void testKeySetIteratorRemove() {
+        Dictionary<Integer, Integer> dictionary = new OpenAddressingDictionary<>();
+        for (int i = 0; i < 100; i++) {
+            dictionary.put(i, i * 2 + 1);
+        }
+        Iterator<Integer> it = dictionary.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next() % 2 == 0) {
+                it.remove();
+            }
+        }
+        Assertions.assertEquals(50, dictionary.size());
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(i % 2 == 1, dictionary.containsKey(i));
+        }
+    }
+
+    @Test
+    void testIteratorRemoveTwiceThrows() {
+        Dictionary<Integer, Integer> dictionary = new OpenAddressingDictionary<>();
+        dictionary.put(1, 2);
+        dictionary.put(2, 3);
+        Iterator<Integer> it = dictionary.values().iterator();
+        Assertions.assertThrows(IllegalStateException.class, it::remove);
+        it.next();
+        it.remove();
+        Assertions.assertThrows(IllegalStateException.class, it::remove);
+        it.next();
+        Assertions.assertThrows(NoSuchElementException.class, it::next);
+    }
+
+    @Test
+    void testEntrySetValue() {
+        Dictionary<Integer, Integer> dictionary = new OpenAddressingDictionary<>();
+        for (int i = 0; i < 100; i++) {
+            dictionary.put(i, i);
+        }
+        for (Map.Entry<Integer, Integer> entry : dictionary.entrySet()) {
+            entry.setValue(entry.getKey() * 3);
+        }
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(i * 3, dictionary.get(i));
+        }
+    }
+
+    @Test
+    void testValuesRemoveAll() {
+        Dictionary<Integer, Integer> dictionary = new OpenAddressingDictionary<>();
+        for (int i = 0; i < 100; i++) {
+            dictionary.put(i, i);
+        }
+        Iterator<Integer> it = dictionary.values().iterator();
+        while (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        Assertions.assertTrue(dictionary.isEmpty());
+        Assertions.assertFalse(dictionary.keySet().iterator().hasNext());
+    }
+
+    @Test
+    void testClear() {
+        Dictionary<Integer, Integer> dictionary = new OpenAddressingDictionary<>();
+        for (int i = 0; i < 100; i++) {
+            dictionary.put(i, i);
+        }
+        dictionary.clear();
+        Assertions.assertTrue(dictionary.isEmpty());
+        Assertions.assertNull(dictionary.get(5));
+    }
+}
@@ -0,0 +1,120 @@
+package ru.hse.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.hse.java.util.DictionaryImpl;
+import ru.hse.java.util.LinkedDictionary;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+public class ParallelDictionaryTests {
+
+    private static DictionaryImpl<Integer, Integer> filled(DictionaryImpl<Integer, Integer> dictionary, int n) {
+        for (int i = 0; i < n; i++) {
+            dictionary.put(i, i % 1000);
+        }
+        return dictionary;
+    }
+
+    @Test
+    public void testSpliteratorSplitsAndCoversAll() {
+        DictionaryImpl<Integer, Integer> dictionary = filled(new DictionaryImpl<>(), 100000);
+        Spliterator<Integer> root = dictionary.keySet().spliterator();
+        Assertions.assertTrue(root.hasCharacteristics(Spliterator.SIZED));
+        Assertions.assertTrue(root.hasCharacteristics(Spliterator.DISTINCT));
+        Assertions.assertEquals(100000, root.getExactSizeIfKnown());
+        List<Spliterator<Integer>> leaves = new ArrayList<>(List.of(root));
+        for (int depth = 0; depth < 4; depth++) {
+            List<Spliterator<Integer>> next = new ArrayList<>();
+            for (Spliterator<Integer> part : leaves) {
+                next.add(Objects.requireNonNull(part.trySplit()));
+                next.add(part);
+            }
+            leaves = next;
+        }
+        Assertions.assertEquals(16, leaves.size());
+        Set<Integer> seen = new HashSet<>();
+        for (Spliterator<Integer> leaf : leaves) {
+            Assertions.assertTrue(leaf.estimateSize() < 100000);
+            if (leaf.tryAdvance(seen::add)) {
+                leaf.forEachRemaining(key -> Assertions.assertTrue(seen.add(key)));
+            }
+        }
+        Assertions.assertEquals(100000, seen.size());
+    }
+
+    @Test
+    public void testParallelStreams() {
+        DictionaryImpl<Integer, Integer> dictionary = filled(new DictionaryImpl<>(0.75, 2, 10, 3), 200000);
+        Assertions.assertEquals(200000, dictionary.entrySet().parallelStream().count());
+        long keySum = dictionary.keySet().parallelStream().mapToLong(Integer::longValue).sum();
+        Assertions.assertEquals(199999L * 200000 / 2, keySum);
+        Map<Integer, Long> counts = dictionary.values().parallelStream()
+                .collect(Collectors.groupingBy(value -> value, Collectors.counting()));
+        Assertions.assertEquals(1000, counts.size());
+        Assertions.assertEquals(200, counts.get(999));
+        Assertions.assertEquals(200000, dictionary.values().parallelStream().toArray().length);
+    }
+
+    @Test
+    public void testForEachParallel() {
+        DictionaryImpl<Integer, Integer> dictionary = filled(new DictionaryImpl<>(), 100000);
+        Set<Integer> keys = ConcurrentHashMap.newKeySet();
+        LongAdder sum = new LongAdder();
+        dictionary.forEachParallel((key, value) -> {
+            keys.add(key);
+            sum.add(value);
+        });
+        Assertions.assertEquals(100000, keys.size());
+        Assertions.assertEquals(100L * 999 * 1000 / 2, sum.sum());
+    }
+
+    @Test
+    public void testReduceParallel() {
+        DictionaryImpl<Integer, Integer> dictionary = filled(new DictionaryImpl<>(), 100000);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            Long sum = dictionary.reduceParallel(pool, (key, value) -> (long) key, Long::sum);
+            Assertions.assertEquals(99999L * 100000 / 2, sum);
+            Integer max = dictionary.reduceParallel((key, value) -> key % 2 == 1 ? null : key, Math::max);
+            Assertions.assertEquals(99998, max);
+        } finally {
+            pool.shutdown();
+        }
+        Assertions.assertNull(new DictionaryImpl<Integer, Integer>().reduceParallel((key, value) -> key, Integer::sum));
+    }
+
+    @Test
+    public void testLinkedDictionaryKeepsOrder() {
+        LinkedDictionary<Integer, Integer> dictionary = new LinkedDictionary<>();
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(14);
+        for (int i = 0; i < 10000; i++) {
+            int key = random.nextInt();
+            if (dictionary.put(key, i) == null) {
+                expected.add(key);
+            }
+        }
+        Assertions.assertTrue(dictionary.keySet().spliterator().hasCharacteristics(Spliterator.ORDERED));
+        Assertions.assertEquals(expected, dictionary.keySet().parallelStream().collect(Collectors.toList()));
+        Long count = dictionary.reduceParallel((key, value) -> 1L, Long::sum);
+        Assertions.assertEquals(expected.size(), count);
+    }
+
+    @Test
+    public void testValueIndexEntrySpliterator() {
+        DictionaryImpl<Integer, Integer> dictionary = filled(new DictionaryImpl<>(), 1000);
+        dictionary.enableValueIndex();
+        dictionary.entrySet().parallelStream().forEach(entry -> {
+            if (entry.getKey() == 5) {
+                entry.setValue(-5);
+            }
+        });
+        Assertions.assertTrue(dictionary.containsValue(-5));
+        Assertions.assertFalse(dictionary.containsValue(5));
+    }
+}
@@ -0,0 +1,142 @@
+package ru.hse.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.hse.java.util.PersistentDictionary;
+
+import java.util.*;
+
+public class PersistentDictionaryTests {
+
+    @Test
+    public void testStress() {
+        PersistentDictionary<Integer, String> dictionary = new PersistentDictionary<>();
+        HashMap<Integer, String> hashMap = new HashMap<>();
+        Random random = new Random(14);
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(5000) * (random.nextBoolean() ? 1 : -1);
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(hashMap.remove(key), dictionary.remove(key));
+            } else {
+                String value = "value" + i;
+                Assertions.assertEquals(hashMap.put(key, value), dictionary.put(key, value));
+            }
+            Assertions.assertEquals(hashMap.size(), dictionary.size());
+        }
+        Assertions.assertEquals(hashMap.entrySet(), dictionary.entrySet());
+        for (int key = -5000; key < 5000; key++) {
+            Assertions.assertEquals(hashMap.get(key), dictionary.get(key));
+            Assertions.assertEquals(hashMap.containsKey(key), dictionary.containsKey(key));
+        }
+    }
+
+    @Test
+    public void testCollidingKeys() {
+        PersistentDictionary<Object, Integer> dictionary = new PersistentDictionary<>();
+        List<String> strings = CollidingKeysTests.collidingStrings(6);
+        for (int i = 0; i < strings.size(); i++) {
+            dictionary.put(strings.get(i), i);
+            dictionary.put(new CollidingKeysTests.BadKey(i), -i);
+        }
+        dictionary.put(0, 0);
+        Assertions.assertEquals(2 * strings.size() + 1, dictionary.size());
+        for (int i = 0; i < strings.size(); i++) {
+            Assertions.assertEquals(i, dictionary.get(strings.get(i)));
+            Assertions.assertEquals(-i, dictionary.get(new CollidingKeysTests.BadKey(i)));
+        }
+        for (int i = 0; i < strings.size(); i += 2) {
+            Assertions.assertEquals(i, dictionary.remove(strings.get(i)));
+            Assertions.assertEquals(-i, dictionary.remove(new CollidingKeysTests.BadKey(i)));
+        }
+        Assertions.assertEquals(strings.size() + 1, dictionary.size());
+        Assertions.assertNull(dictionary.get(strings.get(0)));
+        Assertions.assertEquals(1, dictionary.get(strings.get(1)));
+        Assertions.assertEquals(strings.size() + 1, new ArrayList<>(dictionary.keySet()).size());
+    }
+
+    @Test
+    public void testSnapshotIsolation() {
+        PersistentDictionary<String, Integer> dictionary = new PersistentDictionary<>();
+        for (int i = 0; i < 10000; i++) {
+            dictionary.put("key" + i, i);
+        }
+        PersistentDictionary<String, Integer> snapshot = dictionary.snapshot();
+        for (int i = 0; i < 10000; i += 2) {
+            dictionary.remove("key" + i);
+        }
+        dictionary.put("key1", -1);
+        dictionary.put("extra", 0);
+        snapshot.put("onlyInSnapshot", 1);
+        Assertions.assertEquals(10001, snapshot.size());
+        Assertions.assertEquals(5001, dictionary.size());
+        Assertions.assertEquals(1, snapshot.get("key1"));
+        Assertions.assertEquals(0, snapshot.get("key0"));
+        Assertions.assertFalse(snapshot.containsKey("extra"));
+        Assertions.assertFalse(dictionary.containsKey("onlyInSnapshot"));
+        dictionary.clear();
+        Assertions.assertEquals(10001, snapshot.size());
+    }
+
+    @Test
+    public void testIteratorSeesCreationVersion() {
+        PersistentDictionary<Integer, Integer> dictionary = new PersistentDictionary<>();
+        for (int i = 0; i < 1000; i++) {
+            dictionary.put(i, i);
+        }
+        Iterator<Map.Entry<Integer, Integer>> it = dictionary.entrySet().iterator();
+        Assertions.assertThrows(IllegalStateException.class, it::remove);
+        int count = 0;
+        while (it.hasNext()) {
+            Map.Entry<Integer, Integer> entry = it.next();
+            count++;
+            dictionary.put(entry.getKey() + 1000, 0);
+            if (entry.getKey() % 2 == 0) {
+                it.remove();
+            } else {
+                entry.setValue(-entry.getKey());
+            }
+        }
+        Assertions.assertEquals(1000, count);
+        Assertions.assertEquals(1500, dictionary.size());
+        Assertions.assertEquals(-3, dictionary.get(3));
+        Assertions.assertNull(dictionary.get(4));
+        Assertions.assertTrue(dictionary.containsValue(-999));
+        Assertions.assertThrows(NoSuchElementException.class, it::next);
+    }
+
+    @Test
+    public void testConcurrentWriters() throws InterruptedException {
+        PersistentDictionary<Integer, Integer> dictionary = new PersistentDictionary<>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int base = t * 10000;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    dictionary.put(base + i, i);
+                    if (i % 3 == 0) {
+                        dictionary.remove(base + i);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        PersistentDictionary<Integer, Integer> snapshot = dictionary.snapshot();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(4 * 6666, dictionary.size());
+        Assertions.assertEquals(snapshot.size(), new ArrayList<>(snapshot.values()).size());
+        Assertions.assertEquals(4 * 6666, new HashSet<>(dictionary.keySet()).size());
+    }
+
+    @Test
+    void testNullKey() {
+        PersistentDictionary<String, String> dictionary = new PersistentDictionary<>();
+        Assertions.assertThrows(NullPointerException.class, () -> dictionary.put(null, "a"));
+        dictionary.put("a", null);
+        Assertions.assertTrue(dictionary.containsKey("a"));
+        Assertions.assertTrue(dictionary.containsValue(null));
+        Assertions.assertNull(dictionary.remove("a"));
+        Assertions.assertTrue(dictionary.isEmpty());
+    }
+}
@@ -0,0 +1,138 @@
+package ru.hse.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.hse.java.util.IntIntDictionary;
+import ru.hse.java.util.LongObjDictionary;
+
+import java.util.*;
+
+public class PrimitiveDictionaryTests {
+
+    @Test
+    public void testIntIntStress() {
+        IntIntDictionary dictionary = new IntIntDictionary(0.5, -1);
+        HashMap<Integer, Integer> hashMap = new HashMap<>();
+        Random random = new Random(14);
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(5000) - 2500;
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                Assertions.assertEquals(hashMap.getOrDefault(key, -1), dictionary.remove(key));
+                hashMap.remove(key);
+            } else {
+                Assertions.assertEquals(hashMap.getOrDefault(key, -1), dictionary.put(key, i));
+                hashMap.put(key, i);
+            }
+            Assertions.assertEquals(hashMap.size(), dictionary.size());
+        }
+        for (int key = -2500; key < 2500; key++) {
+            Assertions.assertEquals(hashMap.containsKey(key), dictionary.containsKey(key));
+            Assertions.assertEquals(hashMap.getOrDefault(key, -1), dictionary.get(key));
+        }
+    }
+
+    @Test
+    void testIntIntAddTo() {
+        IntIntDictionary counters = new IntIntDictionary();
+        for (int i = 0; i < 10000; i++) {
+            counters.addTo(i % 100, 1);
+        }
+        Assertions.assertEquals(100, counters.size());
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(100, counters.get(i));
+        }
+        Assertions.assertEquals(0, counters.get(100));
+        Assertions.assertTrue(counters.containsValue(100));
+    }
+
+    @Test
+    void testIntIntIterators() {
+        IntIntDictionary dictionary = new IntIntDictionary();
+        for (int i = 0; i < 100; i++) {
+            dictionary.put(i, i * 2);
+        }
+        Set<Integer> keys = new HashSet<>();
+        PrimitiveIterator.OfInt it = dictionary.keyIterator();
+        while (it.hasNext()) {
+            int key = it.nextInt();
+            keys.add(key);
+            if (key % 2 == 0) {
+                it.remove();
+            }
+        }
+        Assertions.assertThrows(NoSuchElementException.class, it::nextInt);
+        Assertions.assertEquals(100, keys.size());
+        Assertions.assertEquals(50, dictionary.size());
+        long sum = 0;
+        for (PrimitiveIterator.OfInt values = dictionary.valueIterator(); values.hasNext(); ) {
+            sum += values.nextInt();
+        }
+        Assertions.assertEquals(5000, sum);
+    }
+
+    @Test
+    void testIntIntIteratorRemoveTwiceThrows() {
+        IntIntDictionary dictionary = new IntIntDictionary();
+        dictionary.put(0, 1);
+        PrimitiveIterator.OfInt it = dictionary.keyIterator();
+        it.nextInt();
+        it.remove();
+        Assertions.assertThrows(IllegalStateException.class, it::remove);
+        Assertions.assertTrue(dictionary.isEmpty());
+    }
+
+    @Test
+    public void testLongObjStress() {
+        LongObjDictionary<String> dictionary = new LongObjDictionary<>();
+        HashMap<Long, String> hashMap = new HashMap<>();
+        Random random = new Random(14);
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(5000) * 0x1_0000_0001L;
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(hashMap.remove(key), dictionary.remove(key));
+            } else {
+                String value = Integer.toString(i);
+                Assertions.assertEquals(hashMap.put(key, value), dictionary.put(key, value));
+            }
+            Assertions.assertEquals(hashMap.size(), dictionary.size());
+        }
+        for (Map.Entry<Long, String> entry : hashMap.entrySet()) {
+            Assertions.assertEquals(entry.getValue(), dictionary.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    void testLongObjIterators() {
+        LongObjDictionary<String> dictionary = new LongObjDictionary<>();
+        for (long i = 0; i < 100; i++) {
+            dictionary.put(i << 40, Long.toString(i));
+        }
+        PrimitiveIterator.OfLong keys = dictionary.keyIterator();
+        int count = 0;
+        while (keys.hasNext()) {
+            long key = keys.nextLong();
+            Assertions.assertEquals(Long.toString(key >> 40), dictionary.get(key));
+            count++;
+        }
+        Assertions.assertEquals(100, count);
+        Iterator<String> values = dictionary.valueIterator();
+        while (values.hasNext()) {
+            values.next();
+            values.remove();
+        }
+        Assertions.assertTrue(dictionary.isEmpty());
+        Assertions.assertFalse(dictionary.containsValue("1"));
+    }
+
+    @Test
+    void testLongObjClear() {
+        LongObjDictionary<String> dictionary = new LongObjDictionary<>();
+        dictionary.put(Long.MIN_VALUE, "min");
+        dictionary.put(Long.MAX_VALUE, "max");
+        Assertions.assertEquals("min", dictionary.get(Long.MIN_VALUE));
+        dictionary.clear();
+        Assertions.assertNull(dictionary.get(Long.MIN_VALUE));
+        Assertions.assertEquals(0, dictionary.size());
+    }
+}
@@ -0,0 +1,86 @@
+package ru.hse.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.hse.java.util.SoftValueDictionary;
+
+import java.util.*;
+
+public class SoftValueDictionaryTests {
+
+    /*
+     * Заполнять кучу до OutOfMemoryError: перед ней JVM обязана очистить все мягкие ссылки
+     */
+    private static void exhaustMemory() {
+        List<long[]> garbage = new ArrayList<>();
+        try {
+            while (true) {
+                garbage.add(new long[1 << 20]);
+            }
+        } catch (OutOfMemoryError e) {
+            garbage.clear();
+        }
+    }
+
+    @Test
+    public void testBehavesLikeMap() {
+        SoftValueDictionary<Integer, String> dictionary = new SoftValueDictionary<>();
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(19);
+        for (int i = 0; i < 10000; i++) {
+            int key = random.nextInt(3000);
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(expected.remove(key), dictionary.remove(key));
+            } else {
+                Assertions.assertEquals(expected.put(key, "value" + i), dictionary.put(key, "value" + i));
+            }
+        }
+        Assertions.assertEquals(expected.size(), dictionary.size());
+        Assertions.assertEquals(expected, new HashMap<>(dictionary));
+        Assertions.assertThrows(NullPointerException.class, () -> dictionary.put(1, null));
+    }
+
+    @Test
+    public void testClearedValuesArePurged() throws InterruptedException {
+        SoftValueDictionary<Integer, byte[]> dictionary = new SoftValueDictionary<>();
+        byte[] pinned = new byte[10];
+        dictionary.put(-1, pinned);
+        for (int i = 0; i < 100; i++) {
+            dictionary.put(i, new byte[1 << 16]);
+        }
+        Assertions.assertEquals(101, dictionary.size());
+        exhaustMemory();
+        Assertions.assertNull(dictionary.get(5));
+        Assertions.assertFalse(dictionary.containsKey(5));
+        // очищенные ссылки попадают в очередь не сразу, а из отдельного потока JVM
+        for (int attempt = 0; attempt < 100 && dictionary.size() != 1; attempt++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(1, dictionary.size());
+        Assertions.assertSame(pinned, dictionary.get(-1));
+        Assertions.assertEquals(Set.of(-1), dictionary.keySet());
+    }
+
+    @Test
+    public void testIteratorRemoveAndSetValue() {
+        SoftValueDictionary<Integer, Integer> dictionary = new SoftValueDictionary<>();
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(i);
+            dictionary.put(i, values.get(i));
+        }
+        for (Iterator<Map.Entry<Integer, Integer>> it = dictionary.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Integer, Integer> entry = it.next();
+            if (entry.getKey() % 2 == 0) {
+                it.remove();
+            } else {
+                Assertions.assertEquals(entry.getKey(), entry.setValue(values.get(entry.getKey() - 1)));
+            }
+        }
+        Assertions.assertEquals(500, dictionary.size());
+        Assertions.assertNull(dictionary.get(10));
+        Assertions.assertEquals(10, dictionary.get(11));
+        Assertions.assertFalse(dictionary.containsValue(999));
+        Assertions.assertTrue(dictionary.containsValue(998));
+    }
+}
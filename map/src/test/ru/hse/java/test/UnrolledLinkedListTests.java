@@ -0,0 +1,96 @@
+package ru.hse.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.hse.java.util.UnrolledLinkedList;
+
+import java.util.*;
+
+public class UnrolledLinkedListTests {
+
+    @Test
+    public void testStress() {
+        UnrolledLinkedList<Integer> list = new UnrolledLinkedList<>();
+        List<Integer> reference = new ArrayList<>();
+        Random random = new Random(14);
+        for (int round = 0; round < 2000; round++) {
+            int adds = random.nextInt(40);
+            for (int i = 0; i < adds; i++) {
+                int value = random.nextInt(100);
+                list.add(value);
+                reference.add(value);
+            }
+            int removed = random.nextInt(100);
+            Iterator<Integer> it = list.iterator();
+            Iterator<Integer> expected = reference.iterator();
+            while (expected.hasNext()) {
+                Assertions.assertTrue(it.hasNext());
+                Integer value = it.next();
+                Assertions.assertEquals(expected.next(), value);
+                if (value % 3 == 0 || value == removed) {
+                    it.remove();
+                    expected.remove();
+                }
+            }
+            Assertions.assertFalse(it.hasNext());
+            Assertions.assertEquals(reference.size(), list.size());
+            Assertions.assertEquals(reference, new ArrayList<>(list));
+        }
+    }
+
+    @Test
+    public void testRemoveEverythingAndReuse() {
+        UnrolledLinkedList<String> list = new UnrolledLinkedList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add("s" + i);
+        }
+        Iterator<String> it = list.iterator();
+        while (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        Assertions.assertTrue(list.isEmpty());
+        Assertions.assertFalse(list.iterator().hasNext());
+        list.add(null);
+        list.add("a");
+        Assertions.assertEquals(Arrays.asList(null, "a"), new ArrayList<>(list));
+        list.clear();
+        Assertions.assertEquals(0, list.size());
+        list.add("b");
+        Assertions.assertEquals(List.of("b"), new ArrayList<>(list));
+    }
+
+    @Test
+    public void testRemoveFromTailKeepsOrder() {
+        UnrolledLinkedList<Integer> list = new UnrolledLinkedList<>();
+        for (int i = 0; i < 40; i++) {
+            list.add(i);
+        }
+        Iterator<Integer> it = list.iterator();
+        while (it.hasNext()) {
+            if (it.next() >= 10) {
+                it.remove();
+            }
+        }
+        for (int i = 10; i < 20; i++) {
+            list.add(i);
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add(i);
+        }
+        Assertions.assertEquals(expected, new ArrayList<>(list));
+    }
+
+    @Test
+    public void testIteratorErrors() {
+        UnrolledLinkedList<Integer> list = new UnrolledLinkedList<>();
+        list.add(1);
+        Iterator<Integer> it = list.iterator();
+        Assertions.assertThrows(IllegalStateException.class, it::remove);
+        it.next();
+        it.remove();
+        Assertions.assertThrows(IllegalStateException.class, it::remove);
+        Assertions.assertThrows(NoSuchElementException.class, it::next);
+    }
+}
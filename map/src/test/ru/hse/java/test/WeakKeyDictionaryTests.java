@@ -0,0 +1,84 @@
+package ru.hse.java.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.hse.java.util.WeakKeyDictionary;
+
+import java.util.*;
+
+public class WeakKeyDictionaryTests {
+
+    // ждать, пока сборщик соберёт ключи и словарь вычистит их пары
+    private static void awaitSize(Map<?, ?> dictionary, int expected) throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && dictionary.size() != expected; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(expected, dictionary.size());
+    }
+
+    @Test
+    public void testBehavesLikeMap() {
+        WeakKeyDictionary<String, Integer> dictionary = new WeakKeyDictionary<>();
+        Map<String, Integer> expected = new HashMap<>();
+        Random random = new Random(19);
+        for (int i = 0; i < 10000; i++) {
+            String key = "key" + random.nextInt(3000);
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(expected.remove(key), dictionary.remove(key));
+            } else {
+                Assertions.assertEquals(expected.put(key, i), dictionary.put(key, i));
+            }
+        }
+        Assertions.assertEquals(expected.size(), dictionary.size());
+        Assertions.assertEquals(expected, new HashMap<>(dictionary));
+        Assertions.assertEquals(expected.keySet(), dictionary.keySet());
+        Assertions.assertThrows(NullPointerException.class, () -> dictionary.put(null, 1));
+    }
+
+    @Test
+    public void testCollectedKeysArePurged() throws InterruptedException {
+        WeakKeyDictionary<Object, int[]> dictionary = new WeakKeyDictionary<>();
+        List<Object> alive = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Object key = new Object();
+            if (i % 10 == 0) {
+                alive.add(key);
+            }
+            dictionary.put(key, new int[100]);
+        }
+        awaitSize(dictionary, 100);
+        for (Object key : alive) {
+            Assertions.assertNotNull(dictionary.get(key));
+        }
+        Assertions.assertEquals(100, dictionary.keySet().stream().filter(alive::contains).count());
+        alive.clear();
+        awaitSize(dictionary, 0);
+        Assertions.assertTrue(dictionary.isEmpty());
+        Assertions.assertFalse(dictionary.entrySet().iterator().hasNext());
+    }
+
+    @Test
+    public void testIteratorRemoveAndSetValue() {
+        WeakKeyDictionary<Integer, Integer> dictionary = new WeakKeyDictionary<>();
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add(i);
+            dictionary.put(keys.get(i), i);
+        }
+        for (Iterator<Map.Entry<Integer, Integer>> it = dictionary.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Integer, Integer> entry = it.next();
+            if (entry.getKey() % 2 == 0) {
+                it.remove();
+            } else {
+                Assertions.assertEquals(entry.getKey(), entry.setValue(-entry.getKey()));
+            }
+        }
+        Assertions.assertEquals(500, dictionary.size());
+        Assertions.assertNull(dictionary.get(keys.get(10)));
+        Assertions.assertEquals(-11, dictionary.get(keys.get(11)));
+        Assertions.assertTrue(dictionary.containsValue(-999));
+        dictionary.clear();
+        Assertions.assertEquals(0, dictionary.size());
+    }
+}
@@ -26,6 +26,35 @@ java {
         test {
             java.setSrcDirs(listOf("src/test"))
         }
+        create("jmh") {
+            java.setSrcDirs(listOf("src/jmh"))
+            compileClasspath += sourceSets["main"].output
+            runtimeClasspath += sourceSets["main"].output
+        }
+    }
+}
+
+configurations["jmhImplementation"].extendsFrom(configurations["implementation"])
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.26")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.26")
+}
+
+tasks.named<JavaCompile>("compileJmhJava") {
+    options.release.set(11)
+}
+
+// ./gradlew jmh -Pjmh="ConcurrentMultisetBenchmark" -- запустить бенчмарки, результаты в build/reports/jmh/results.json
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    dependsOn("jmhClasses")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val results = file("$buildDir/reports/jmh/results.json")
+    args(listOfNotNull(project.findProperty("jmh")?.toString(), "-rf", "json", "-rff", results.path))
+    doFirst {
+        results.parentFile.mkdirs()
     }
 }
 
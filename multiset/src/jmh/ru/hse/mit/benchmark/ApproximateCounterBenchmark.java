@@ -0,0 +1,106 @@
+package ru.hse.mit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.hse.mit.util.ApproximateCounter;
+import ru.hse.mit.util.HashMultiset;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ApproximateCounter против HashMultiset на потоке событий с распределением Ципфа
+ * Скорость -- пропускная способность add; занятая структурой память печатается после прогона
+ *   (разница живой кучи после System.gc() до и после заполнения), выделения видны с -prof gc:
+ *   ./gradlew jmh -Pjmh="ApproximateCounterBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApproximateCounterBenchmark {
+    private static final int EVENTS = 1 << 20;
+
+    @Param({"ApproximateCounter", "HashMultiset"})
+    private String implementation;
+
+    @Param({"10000", "1000000"})
+    private int distinct;
+
+    @Param({"1.0", "1.2"})
+    private double exponent;
+
+    private Integer[] events;
+    private int cursor;
+    private ApproximateCounter<Integer> counter;
+    private HashMultiset<Integer> multiset;
+
+    @Setup
+    public void setUp() {
+        double[] cumulative = new double[distinct];
+        double sum = 0;
+        for (int i = 0; i < distinct; i++) {
+            sum += Math.pow(i + 1, -exponent);
+            cumulative[i] = sum;
+        }
+        Random random = new Random(24);
+        events = new Integer[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            events[i] = index < 0 ? -index - 1 : index;
+        }
+        if ("ApproximateCounter".equals(implementation)) {
+            counter = new ApproximateCounter<>(0.0001, 0.99, 100);
+        } else {
+            multiset = new HashMultiset<>();
+        }
+    }
+
+    @TearDown
+    public void printFootprint() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        counter = null;
+        multiset = null;
+        System.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        Object filled;
+        if ("ApproximateCounter".equals(implementation)) {
+            ApproximateCounter<Integer> fresh = new ApproximateCounter<>(0.0001, 0.99, 100);
+            for (Integer event : events) {
+                fresh.add(event);
+            }
+            filled = fresh;
+        } else {
+            HashMultiset<Integer> fresh = new HashMultiset<>();
+            for (Integer event : events) {
+                fresh.add(event);
+            }
+            filled = fresh;
+        }
+        System.gc();
+        long after = memory.getHeapMemoryUsage().getUsed();
+        System.out.printf("%n%s after %d events over %d elements: ~%d KB retained (%s)%n",
+                implementation, EVENTS, distinct, (after - before) / 1024, filled.getClass().getSimpleName());
+    }
+
+    private Integer nextEvent() {
+        Integer event = events[cursor];
+        cursor = (cursor + 1) & (EVENTS - 1);
+        return event;
+    }
+
+    @Benchmark
+    public long add() {
+        Integer event = nextEvent();
+        if (counter != null) {
+            counter.add(event);
+            return counter.size();
+        }
+        multiset.add(event);
+        return multiset.size();
+    }
+}
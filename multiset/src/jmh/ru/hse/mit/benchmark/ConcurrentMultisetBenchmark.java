@@ -0,0 +1,71 @@
+package ru.hse.mit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.hse.mit.util.ConcurrentHashMultiset;
+import ru.hse.mit.util.HashMultiset;
+import ru.hse.mit.util.Multiset;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Пропускная способность подсчёта событий из нескольких потоков:
+ *   ConcurrentHashMultiset против HashMultiset под общим монитором
+ * Число потоков задаётся через -t, например:
+ *   ./gradlew jmh -Pjmh="ConcurrentMultisetBenchmark -t 8 -p distinct=16"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ConcurrentMultisetBenchmark {
+    @Param({"ConcurrentHashMultiset", "synchronized HashMultiset"})
+    private String implementation;
+
+    // число различных типов событий
+    @Param({"16", "100000"})
+    private int distinct;
+
+    private Multiset<String> multiset;
+    private String[] events;
+
+    @Setup
+    public void setUp() {
+        multiset = "ConcurrentHashMultiset".equals(implementation)
+                ? new ConcurrentHashMultiset<>()
+                : new SynchronizedMultiset<>(new HashMultiset<>());
+        events = new String[distinct];
+        for (int i = 0; i < distinct; i++) {
+            events[i] = "event" + i;
+            multiset.add(events[i]);
+        }
+    }
+
+    private String randomEvent() {
+        return events[ThreadLocalRandom.current().nextInt(distinct)];
+    }
+
+    @Benchmark
+    public boolean add() {
+        return multiset.add(randomEvent());
+    }
+
+    @Benchmark
+    public int count() {
+        return multiset.count(randomEvent());
+    }
+
+    // на каждые 8 добавлений -- одно чтение счётчика и одно удаление
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public int mixed() {
+        for (int i = 0; i < 8; i++) {
+            multiset.add(randomEvent());
+        }
+        multiset.remove(randomEvent());
+        return multiset.count(randomEvent());
+    }
+}
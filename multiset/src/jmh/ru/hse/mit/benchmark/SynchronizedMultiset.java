@@ -0,0 +1,70 @@
+package ru.hse.mit.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+import ru.hse.mit.util.Multiset;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.Set;
+
+/*
+ * Multiset под одним монитором -- то, чем приходится оборачивать HashMultiset для счёта из нескольких потоков
+ * Для бенчмарков нужны только операции со счётчиками и size, представления не синхронизированы
+ */
+class SynchronizedMultiset<E> extends AbstractCollection<E> implements Multiset<E> {
+    private final Multiset<E> multiset;
+
+    SynchronizedMultiset(Multiset<E> multiset) {
+        this.multiset = multiset;
+    }
+
+    @Override
+    public synchronized int count(Object element) {
+        return multiset.count(element);
+    }
+
+    @Override
+    public synchronized boolean add(E element) {
+        return multiset.add(element);
+    }
+
+    @Override
+    public synchronized boolean remove(Object element) {
+        return multiset.remove(element);
+    }
+
+    @Override
+    public synchronized boolean add(E element, int occurrences) {
+        return multiset.add(element, occurrences);
+    }
+
+    @Override
+    public synchronized int remove(Object element, int occurrences) {
+        return multiset.remove(element, occurrences);
+    }
+
+    @Override
+    public synchronized int setCount(E element, int count) {
+        return multiset.setCount(element, count);
+    }
+
+    @Override
+    public synchronized int size() {
+        return multiset.size();
+    }
+
+    @Override
+    public Set<E> elementSet() {
+        return multiset.elementSet();
+    }
+
+    @Override
+    public Set<Entry<E>> entrySet() {
+        return multiset.entrySet();
+    }
+
+    @Override
+    public @NotNull Iterator<E> iterator() {
+        return multiset.iterator();
+    }
+}
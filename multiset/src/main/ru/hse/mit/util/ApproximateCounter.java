@@ -0,0 +1,310 @@
+package ru.hse.mit.util;
+
+import java.util.*;
+
+/**
+ * Multiset-like counter for unbounded streams that uses a fixed amount of memory.
+ * <p>
+ * Counts are estimated by a Count-Min Sketch: {@code depth} rows of {@code width} counters,
+ * every element increments one counter in each row, and the estimate is the minimum over the rows.
+ * The estimate never underestimates; with probability {@code confidence} it overestimates by
+ * at most {@code epsilon * size()}. The sketch takes {@code e / epsilon} by {@code ln(1 / (1 - confidence))} longs.
+ * <p>
+ * The most frequent elements are tracked by the Space-Saving algorithm in {@code heavyHitters} slots:
+ * when all slots are taken, a new element replaces the one with the smallest count and inherits that count
+ * as its possible error. Every element that occurs more than {@code size() / heavyHitters} times is guaranteed
+ * to be tracked.
+ * <p>
+ * The counter is not thread-safe. To count from several threads, give each thread its own counter
+ * with the same parameters and combine them with {@link #merge(ApproximateCounter)}.
+ */
+public class ApproximateCounter<E> {
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final int MAX_WIDTH = 1 << 30;
+    // наибольший размер массива, который точно можно выделить
+    private static final int MAX_SKETCH = Integer.MAX_VALUE - 8;
+
+    private final double epsilon;
+    private final double confidence;
+    private final int width;
+    private final int depth;
+    private final long[] sketch;
+    private long size;
+
+    private final int capacity;
+    private final Map<E, Slot<E>> slots;
+    // двоичная куча по возрастанию count: heap[0] -- слот, который вытесняется первым
+    private final Slot<E>[] heap;
+    private int heapSize;
+
+    private static final class Slot<E> {
+        E element;
+        long count;
+        long error;
+        int index;
+    }
+
+    /**
+     * One tracked frequent element.
+     */
+    public static final class HeavyHitter<E> {
+        private final E element;
+        private final long count;
+        private final long guaranteedCount;
+
+        private HeavyHitter(E element, long count, long guaranteedCount) {
+            this.element = element;
+            this.count = count;
+            this.guaranteedCount = guaranteedCount;
+        }
+
+        public E getElement() {
+            return element;
+        }
+
+        /**
+         * Upper bound of the number of occurrences.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Lower bound of the number of occurrences.
+         */
+        public long getGuaranteedCount() {
+            return guaranteedCount;
+        }
+
+        @Override
+        public String toString() {
+            return element + "=" + count;
+        }
+    }
+
+    /**
+     * @param epsilon      maximal overestimation of a count, as a fraction of {@code size()}
+     * @param confidence   probability that an estimate stays within {@code epsilon}
+     * @param heavyHitters number of most frequent elements to track
+     */
+    @SuppressWarnings("unchecked")
+    public ApproximateCounter(double epsilon, double confidence, int heavyHitters) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("epsilon must be in (0, 1): " + epsilon);
+        }
+        if (!(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("confidence must be in (0, 1): " + confidence);
+        }
+        if (heavyHitters <= 0) {
+            throw new IllegalArgumentException("heavyHitters must be positive: " + heavyHitters);
+        }
+        this.epsilon = epsilon;
+        this.confidence = confidence;
+        double minWidth = Math.ceil(Math.E / epsilon);
+        depth = Math.max(1, (int) Math.ceil(Math.log(1 / (1 - confidence))));
+        width = minWidth > MAX_WIDTH ? -1 : Integer.highestOneBit((int) minWidth - 1) << 1;
+        if (width < 0 || (long) width * depth > MAX_SKETCH) {
+            throw new IllegalArgumentException("epsilon " + epsilon + " with confidence " + confidence
+                    + " needs a sketch larger than " + MAX_SKETCH + " counters");
+        }
+        sketch = new long[width * depth];
+        capacity = heavyHitters;
+        slots = new HashMap<>();
+        heap = (Slot<E>[]) new Slot[heavyHitters];
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /*
+     * Индексы в строках получаются из двух половин одного 64-битного хеша: (h1 + row * h2) mod width
+     * Нечётный h2 при ширине -- степени двойки даёт в разных строках разные столбцы
+     */
+    private long hash(Object element) {
+        return mix(Objects.hashCode(element) ^ SEED);
+    }
+
+    private int cell(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * width + ((h1 + row * h2) & (width - 1));
+    }
+
+    public void add(E element) {
+        add(element, 1);
+    }
+
+    public void add(E element, int occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("occurrences must be non-negative: " + occurrences);
+        }
+        if (occurrences == 0) {
+            return;
+        }
+        long hash = hash(element);
+        for (int row = 0; row < depth; row++) {
+            sketch[cell(hash, row)] += occurrences;
+        }
+        size += occurrences;
+        offer(element, occurrences);
+    }
+
+    private void offer(E element, long occurrences) {
+        Slot<E> slot = slots.get(element);
+        if (slot == null) {
+            if (heapSize < capacity) {
+                slot = new Slot<>();
+                slot.index = heapSize;
+                heap[heapSize++] = slot;
+            } else {
+                slot = heap[0];
+                slots.remove(slot.element);
+                slot.error = slot.count;
+            }
+            slot.element = element;
+            slots.put(element, slot);
+        }
+        slot.count += occurrences;
+        // новый слот добавлен листом и может оказаться меньше родителя, выросший -- опускается вниз
+        siftUp(slot.index);
+        siftDown(slot.index);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0 && heap[(i - 1) / 2].count > heap[i].count) {
+            swap(i, (i - 1) / 2);
+            i = (i - 1) / 2;
+        }
+    }
+
+    private void swap(int i, int j) {
+        Slot<E> slot = heap[i];
+        heap[i] = heap[j];
+        heap[j] = slot;
+        heap[i].index = i;
+        heap[j].index = j;
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            for (int child = 2 * i + 1; child <= 2 * i + 2 && child < heapSize; child++) {
+                if (heap[child].count < heap[smallest].count) {
+                    smallest = child;
+                }
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    /**
+     * Returns an estimate of the number of occurrences that is never less than the true count.
+     */
+    public long count(Object element) {
+        long hash = hash(element);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, sketch[cell(hash, row)]);
+        }
+        Slot<E> slot = slots.get(element);
+        return slot == null ? estimate : Math.min(estimate, slot.count);
+    }
+
+    /**
+     * Returns the total number of added occurrences.
+     */
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the tracked frequent elements, highest count first.
+     */
+    public List<HeavyHitter<E>> heavyHitters() {
+        List<HeavyHitter<E>> result = new ArrayList<>(heapSize);
+        for (int i = 0; i < heapSize; i++) {
+            Slot<E> slot = heap[i];
+            result.add(new HeavyHitter<>(slot.element, count(slot.element), slot.count - slot.error));
+        }
+        result.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        return result;
+    }
+
+    /**
+     * Adds all counts of {@code other} to this counter, as if all its elements were added here.
+     * Both counters must have been created with the same parameters.
+     */
+    public void merge(ApproximateCounter<? extends E> other) {
+        if (other.epsilon != epsilon || other.confidence != confidence || other.capacity != capacity) {
+            throw new IllegalArgumentException("counters with different parameters can't be merged");
+        }
+        if (other == this) {
+            throw new IllegalArgumentException("counter can't be merged with itself");
+        }
+        for (int i = 0; i < sketch.length; i++) {
+            sketch[i] += other.sketch[i];
+        }
+        size += other.size;
+        mergeHeavyHitters(other);
+    }
+
+    /*
+     * Слияние двух Space-Saving: элемент, которого нет в одном из счётчиков, мог встретиться там
+     *   не больше минимального счётчика этого набора (если набор заполнен), эта величина добавляется и к ошибке
+     * Из объединения остаются capacity элементов с наибольшими счётчиками
+     */
+    private void mergeHeavyHitters(ApproximateCounter<? extends E> other) {
+        long thisMin = heapSize == capacity ? heap[0].count : 0;
+        long otherMin = other.heapSize == other.capacity ? other.heap[0].count : 0;
+        List<Slot<E>> merged = new ArrayList<>(heapSize + other.heapSize);
+        for (int i = 0; i < heapSize; i++) {
+            Slot<E> slot = heap[i];
+            Slot<? extends E> otherSlot = other.slots.get(slot.element);
+            slot.count += otherSlot == null ? otherMin : otherSlot.count;
+            slot.error += otherSlot == null ? otherMin : otherSlot.error;
+            merged.add(slot);
+        }
+        for (int i = 0; i < other.heapSize; i++) {
+            Slot<? extends E> otherSlot = other.heap[i];
+            if (!slots.containsKey(otherSlot.element)) {
+                Slot<E> slot = new Slot<>();
+                slot.element = otherSlot.element;
+                slot.count = otherSlot.count + thisMin;
+                slot.error = otherSlot.error + thisMin;
+                merged.add(slot);
+            }
+        }
+        merged.sort((a, b) -> Long.compare(b.count, a.count));
+        slots.clear();
+        heapSize = Math.min(capacity, merged.size());
+        for (int i = 0; i < heapSize; i++) {
+            Slot<E> slot = merged.get(i);
+            slot.index = heapSize - 1 - i;
+            heap[slot.index] = slot;
+            slots.put(slot.element, slot);
+        }
+        Arrays.fill(heap, heapSize, capacity, null);
+    }
+
+    public void clear() {
+        Arrays.fill(sketch, 0);
+        size = 0;
+        slots.clear();
+        Arrays.fill(heap, null);
+        heapSize = 0;
+    }
+}
@@ -0,0 +1,406 @@
+package ru.hse.mit.util;
+
+import java.util.*;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Multiset that stores counts as primitive {@code int}s, without a boxed {@code Integer} per element.
+ * <p>
+ * Distinct elements are kept in insertion order in the arrays {@code elements}, {@code hashes} and
+ * {@code counts}; position {@code i} of all three describes one element. The open-addressed table
+ * {@code table} maps a hash to {@code position + 1} ({@code 0} is an empty slot, {@link #DELETED} a removed one).
+ * Incrementing an existing element is one lookup and one array write, with no allocation at all.
+ * <p>
+ * A fully removed element leaves a dead position with count {@code 0}; dead positions are squeezed out
+ * when the arrays fill up. The table is at least twice as large as the arrays, so it is never more than half full.
+ * Iteration order is the insertion order of distinct elements, as in {@link HashMultiset}; {@code null} is allowed.
+ */
+public class CompactHashMultiset<E> extends AbstractCollection<E> implements Multiset<E> {
+    private static final int MIN_CAPACITY = 8;
+    private static final int DELETED = -1;
+
+    private Object[] elements;
+    private int[] hashes;
+    private int[] counts;
+    private int[] table;
+    private int used;
+    private int distinct;
+    private int size;
+    private int modCount;
+    private Set<E> elementSet;
+    private Set<Entry<E>> entrySet;
+
+    public CompactHashMultiset() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates a multiset that holds {@code expectedDistinct} distinct elements without resizing.
+     */
+    public CompactHashMultiset(int expectedDistinct) {
+        if (expectedDistinct < 0) {
+            throw new IllegalArgumentException("expectedDistinct must be non-negative: " + expectedDistinct);
+        }
+        allocate(Math.max(MIN_CAPACITY, expectedDistinct));
+    }
+
+    private void allocate(int capacity) {
+        elements = new Object[capacity];
+        hashes = new int[capacity];
+        counts = new int[capacity];
+        table = new int[Integer.highestOneBit(capacity - 1) << 2];
+    }
+
+    private static int hash(Object element) {
+        int h = element == null ? 0 : element.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the table slot referring to the element, or {@code -1} if there is no such element.
+     */
+    private int slotOf(Object element, int hash) {
+        int mask = table.length - 1;
+        for (int i = hash & mask; table[i] != 0; i = (i + 1) & mask) {
+            int position = table[i] - 1;
+            if (position >= 0 && hashes[position] == hash && Objects.equals(element, elements[position])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int positionOf(Object element) {
+        int slot = slotOf(element, hash(element));
+        return slot < 0 ? -1 : table[slot] - 1;
+    }
+
+    private void insert(int position) {
+        int mask = table.length - 1;
+        int i = hashes[position] & mask;
+        while (table[i] > 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = position + 1;
+    }
+
+    /**
+     * Makes room for one more position: squeezes out dead positions if at least half of them are dead,
+     * otherwise doubles the arrays. Either way the table is rebuilt without tombstones.
+     */
+    private void ensureRoom() {
+        if (used < elements.length) {
+            return;
+        }
+        Object[] oldElements = elements;
+        int[] oldHashes = hashes;
+        int[] oldCounts = counts;
+        if (distinct > used / 2) {
+            allocate(2 * elements.length);
+        } else {
+            Arrays.fill(table, 0);
+        }
+        int position = 0;
+        for (int i = 0; i < used; i++) {
+            if (oldCounts[i] > 0) {
+                elements[position] = oldElements[i];
+                hashes[position] = oldHashes[i];
+                counts[position] = oldCounts[i];
+                insert(position++);
+            }
+        }
+        Arrays.fill(elements, position, used, null);
+        Arrays.fill(counts, position, used, 0);
+        used = position;
+    }
+
+    private void kill(int position, int slot) {
+        size -= counts[position];
+        counts[position] = 0;
+        elements[position] = null;
+        table[slot] = DELETED;
+        distinct--;
+        modCount++;
+    }
+
+    @Override
+    public int count(Object element) {
+        int position = positionOf(element);
+        return position < 0 ? 0 : counts[position];
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return positionOf(element) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private static void checkOccurrences(int occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("occurrences must be non-negative: " + occurrences);
+        }
+    }
+
+    // счётчик элемента не больше size, поэтому достаточно проверить, что новый размер помещается в int
+    private int checkedSize(int delta) {
+        if (delta > Integer.MAX_VALUE - size) {
+            throw new IllegalArgumentException("size would overflow: " + size + " + " + delta);
+        }
+        return size + delta;
+    }
+
+    /**
+     * Returns the position of the element, appending it with count {@code 0} if there is no such element.
+     * The caller must give the new position a positive count.
+     */
+    private int positionForAdd(E element) {
+        int hash = hash(element);
+        int slot = slotOf(element, hash);
+        if (slot >= 0) {
+            return table[slot] - 1;
+        }
+        ensureRoom();
+        elements[used] = element;
+        hashes[used] = hash;
+        insert(used);
+        distinct++;
+        modCount++;
+        return used++;
+    }
+
+    @Override
+    public boolean add(E element) {
+        return add(element, 1);
+    }
+
+    @Override
+    public boolean add(E element, int occurrences) {
+        checkOccurrences(occurrences);
+        if (occurrences == 0) {
+            return false;
+        }
+        int newSize = checkedSize(occurrences);
+        int position = positionForAdd(element);
+        counts[position] += occurrences;
+        size = newSize;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        return remove(element, 1) > 0;
+    }
+
+    @Override
+    public int remove(Object element, int occurrences) {
+        checkOccurrences(occurrences);
+        int slot = slotOf(element, hash(element));
+        if (slot < 0 || occurrences == 0) {
+            return 0;
+        }
+        int position = table[slot] - 1;
+        int number = counts[position];
+        if (number <= occurrences) {
+            kill(position, slot);
+            return number;
+        }
+        counts[position] -= occurrences;
+        size -= occurrences;
+        return occurrences;
+    }
+
+    @Override
+    public int setCount(E element, int count) {
+        checkOccurrences(count);
+        if (count == 0) {
+            return remove(element, Integer.MAX_VALUE);
+        }
+        int position = positionOf(element);
+        int previous = position < 0 ? 0 : counts[position];
+        size = checkedSize(count - previous);
+        if (position < 0) {
+            position = positionForAdd(element);
+        }
+        counts[position] = count;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        allocate(MIN_CAPACITY);
+        used = 0;
+        distinct = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<E> elementSet() {
+        if (elementSet == null) {
+            elementSet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<E> iterator() {
+                    return new PositionIterator<>() {
+                        @Override
+                        E get(int position) {
+                            return element(position);
+                        }
+                    };
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return CompactHashMultiset.this.contains(o);
+                }
+
+                @Override
+                public int size() {
+                    return distinct;
+                }
+            };
+        }
+        return elementSet;
+    }
+
+    @Override
+    public Set<Entry<E>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<E>> iterator() {
+                    return new PositionIterator<>() {
+                        @Override
+                        Entry<E> get(int position) {
+                            E element = element(position);
+                            return new Entry<>() {
+                                @Override
+                                public E getElement() {
+                                    return element;
+                                }
+
+                                @Override
+                                public int getCount() {
+                                    return counts[position];
+                                }
+                            };
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return distinct;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E element(int position) {
+        return (E) elements[position];
+    }
+
+    /**
+     * Iterates over live positions in insertion order; {@code remove} removes all occurrences.
+     * Removal never moves positions, so iteration can go on after it.
+     */
+    private abstract class PositionIterator<T> implements Iterator<T> {
+        private int next = advance(0);
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        private int advance(int position) {
+            while (position < used && counts[position] == 0) {
+                position++;
+            }
+            return position;
+        }
+
+        abstract T get(int position);
+
+        @Override
+        public boolean hasNext() {
+            return next < used;
+        }
+
+        int nextPosition() {
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= used) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = advance(next + 1);
+            return last;
+        }
+
+        @Override
+        public T next() {
+            return get(nextPosition());
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            kill(last, slotOf(elements[last], hashes[last]));
+            expectedModCount = modCount;
+            last = -1;
+        }
+    }
+
+    @Override
+    public @NotNull Iterator<E> iterator() {
+        return new PositionIterator<>() {
+            private int position;
+            private int remaining;
+            private boolean deleted = true;
+
+            @Override
+            E get(int position) {
+                return element(position);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0 || super.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (remaining == 0) {
+                    position = nextPosition();
+                    remaining = counts[position];
+                }
+                deleted = false;
+                remaining--;
+                return get(position);
+            }
+
+            @Override
+            public void remove() {
+                if (deleted) {
+                    throw new IllegalStateException();
+                }
+                if (counts[position] == 1) {
+                    super.remove();
+                } else {
+                    counts[position]--;
+                    size--;
+                }
+                deleted = true;
+            }
+        };
+    }
+}
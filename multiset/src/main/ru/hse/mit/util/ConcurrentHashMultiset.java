@@ -0,0 +1,359 @@
+package ru.hse.mit.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thread-safe multiset for counting from many threads at once.
+ * <p>
+ * Each element has its own {@link LongAdder}, so concurrent {@code add} calls do not lock anything
+ * and do not allocate once the element is known. {@code remove} and {@code setCount} lock only the element's
+ * bin of the underlying {@link ConcurrentHashMap}, so they are atomic with respect to each other,
+ * and concurrent additions can only increase the count they have seen.
+ * <p>
+ * Differences from {@link HashMultiset}:
+ * <ul>
+ *     <li>{@code null} elements are not supported;</li>
+ *     <li>iteration order is not defined, iterators are weakly consistent and never throw
+ *     {@link ConcurrentModificationException};</li>
+ *     <li>{@code size} sums all counters, so it costs O(number of distinct elements);</li>
+ *     <li>counts and {@code size} above {@code Integer.MAX_VALUE} are reported as {@code Integer.MAX_VALUE}
+ *     instead of being rejected;</li>
+ *     <li>an element whose count drops to zero loses its counter; an {@code add} that raced with the removal
+ *     and hit the detached counter moves its occurrences to the element's new counter, so it is never lost.</li>
+ * </ul>
+ */
+public class ConcurrentHashMultiset<E> extends AbstractCollection<E> implements Multiset<E> {
+    private final ConcurrentMap<E, Counter> counts = new ConcurrentHashMap<>();
+    private Set<E> elementSet;
+    private Set<Entry<E>> entrySet;
+
+    /*
+     * Счётчик удаляется из таблицы, когда его сумма падает до нуля; перед этим ставится флаг removed
+     * Удаляющий ставит флаг до того, как прочитать сумму, а add читает флаг после прибавления,
+     *   поэтому прибавление либо попало в прочитанную сумму, либо add увидит флаг и перенесёт остаток сам
+     */
+    private static final class Counter extends LongAdder {
+        volatile boolean removed;
+    }
+
+    private static int toInt(long count) {
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    private static void checkOccurrences(int occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("occurrences must be non-negative: " + occurrences);
+        }
+    }
+
+    @Override
+    public int count(Object element) {
+        Counter counter = element == null ? null : counts.get(element);
+        return counter == null ? 0 : toInt(counter.sum());
+    }
+
+    @Override
+    public boolean add(@NotNull E element, int occurrences) {
+        checkOccurrences(occurrences);
+        Objects.requireNonNull(element);
+        if (occurrences == 0) {
+            return false;
+        }
+        Counter counter = counts.get(element);
+        if (counter == null) {
+            counter = counts.computeIfAbsent(element, e -> new Counter());
+        }
+        counter.add(occurrences);
+        if (counter.removed) {
+            reattach(element, counter);
+        }
+        return true;
+    }
+
+    /*
+     * Переносит то, что попало в уже удалённый счётчик после чтения его суммы, в текущий счётчик элемента
+     * Переносы одного элемента идут под блокировкой его корзины, так что каждое прибавление переносится ровно раз
+     * Если удаление передумало (счётчик остался в таблице), переносить нечего
+     */
+    private void reattach(E element, Counter detached) {
+        counts.compute(element, (e, counter) -> {
+            if (counter == detached) {
+                return counter;
+            }
+            long rest = detached.sum();
+            if (rest == 0) {
+                return counter;
+            }
+            detached.add(-rest);
+            if (counter == null) {
+                counter = new Counter();
+            }
+            counter.add(rest);
+            return counter;
+        });
+    }
+
+    /*
+     * Вызывается под блокировкой корзины элемента; возвращает, сколько вхождений снято
+     * Если снимается всё, счётчик помечается удалённым и вызывающий должен убрать его из таблицы
+     */
+    private static long take(Counter counter, long occurrences) {
+        long sum = counter.sum();
+        if (sum > occurrences) {
+            counter.add(-occurrences);
+            return occurrences;
+        }
+        counter.removed = true;
+        sum = counter.sum();
+        if (sum > occurrences) {
+            counter.removed = false;
+            counter.add(-occurrences);
+            return occurrences;
+        }
+        counter.add(-sum);
+        return sum;
+    }
+
+    @Override
+    public int remove(Object element, int occurrences) {
+        checkOccurrences(occurrences);
+        if (element == null || occurrences == 0) {
+            return 0;
+        }
+        int[] removed = new int[1];
+        counts.computeIfPresent(toElement(element), (e, counter) -> {
+            removed[0] = toInt(take(counter, occurrences));
+            return counter.removed ? null : counter;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public int setCount(@NotNull E element, int count) {
+        checkOccurrences(count);
+        Objects.requireNonNull(element);
+        int[] previous = new int[1];
+        counts.compute(element, (e, counter) -> {
+            if (counter == null) {
+                if (count == 0) {
+                    return null;
+                }
+                counter = new Counter();
+            }
+            if (count == 0) {
+                previous[0] = toInt(take(counter, Long.MAX_VALUE));
+                return null;
+            }
+            long sum = counter.sum();
+            previous[0] = toInt(sum);
+            counter.add(count - sum);
+            return counter;
+        });
+        return previous[0];
+    }
+
+    @SuppressWarnings("unchecked")
+    private E toElement(Object element) {
+        return (E) element;
+    }
+
+    @Override
+    public boolean add(E element) {
+        return add(element, 1);
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        return remove(element, 1) > 0;
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return count(element) > 0;
+    }
+
+    @Override
+    public int size() {
+        long size = 0;
+        for (Counter counter : counts.values()) {
+            size += counter.sum();
+        }
+        return toInt(size);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Counter counter : counts.values()) {
+            if (counter.sum() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        // поэлементно, чтобы add, попавший в снятый счётчик, перенёс свои вхождения, а не потерял их
+        for (E element : counts.keySet()) {
+            setCount(element, 0);
+        }
+    }
+
+    @Override
+    public Set<E> elementSet() {
+        if (elementSet == null) {
+            elementSet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<E> iterator() {
+                    return new CountedIterator<>() {
+                        @Override
+                        E get(E element, int count) {
+                            return element;
+                        }
+                    };
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return ConcurrentHashMultiset.this.contains(o);
+                }
+
+                @Override
+                public boolean remove(Object o) {
+                    return o != null && counts.containsKey(o) && setCount(toElement(o), 0) > 0;
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (Counter counter : counts.values()) {
+                        if (counter.sum() > 0) {
+                            size++;
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+        return elementSet;
+    }
+
+    @Override
+    public Set<Entry<E>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<E>> iterator() {
+                    return new CountedIterator<>() {
+                        @Override
+                        Entry<E> get(E element, int count) {
+                            return new Entry<>() {
+                                @Override
+                                public E getElement() {
+                                    return element;
+                                }
+
+                                @Override
+                                public int getCount() {
+                                    return count;
+                                }
+                            };
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return elementSet().size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Iterates over elements with a positive count, as seen at the moment of {@code hasNext}.
+     * {@code remove} removes all occurrences of the last element.
+     */
+    private abstract class CountedIterator<T> implements Iterator<T> {
+        private final Iterator<Map.Entry<E, Counter>> iterator = counts.entrySet().iterator();
+        private E nextElement;
+        private int nextCount;
+        private E last;
+
+        abstract T get(E element, int count);
+
+        @Override
+        public boolean hasNext() {
+            while (nextElement == null && iterator.hasNext()) {
+                Map.Entry<E, Counter> next = iterator.next();
+                int count = toInt(next.getValue().sum());
+                if (count > 0) {
+                    nextElement = next.getKey();
+                    nextCount = count;
+                }
+            }
+            return nextElement != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = nextElement;
+            nextElement = null;
+            return get(last, nextCount);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            setCount(last, 0);
+            last = null;
+        }
+    }
+
+    @Override
+    public @NotNull Iterator<E> iterator() {
+        return new Iterator<>() {
+            private final Iterator<Entry<E>> iterator = entrySet().iterator();
+            private E element;
+            private int elementNumber;
+            private boolean deleted = true;
+
+            @Override
+            public boolean hasNext() {
+                return elementNumber > 0 || iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (elementNumber == 0) {
+                    Entry<E> next = iterator.next();
+                    element = next.getElement();
+                    elementNumber = next.getCount();
+                }
+                deleted = false;
+                elementNumber--;
+                return element;
+            }
+
+            @Override
+            public void remove() {
+                if (deleted) {
+                    throw new IllegalStateException();
+                }
+                ConcurrentHashMultiset.this.remove(element, 1);
+                deleted = true;
+            }
+        };
+    }
+}
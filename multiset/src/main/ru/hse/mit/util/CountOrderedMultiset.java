@@ -0,0 +1,450 @@
+package ru.hse.mit.util;
+
+import java.util.*;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Multiset that keeps its elements ordered by count, for frequent "most common elements" queries.
+ * <p>
+ * Elements with equal counts share a bucket; buckets form a doubly linked list sorted by count
+ * (the LFU cache layout). Adding or removing one occurrence moves the element to the neighbouring bucket
+ * in O(1), so {@link #topK(int)} and {@link #highestCountFirst()} never sort anything: they walk
+ * the buckets from the highest count and cost O(k) for the first k elements.
+ * Bulk {@code add(E, int)}, {@code remove(Object, int)} and {@code setCount} also cost O(1) plus
+ * one step for every bucket the element jumps over.
+ * <p>
+ * {@code iterator}, {@code elementSet} and {@code entrySet} keep the insertion order of {@link HashMultiset};
+ * within a bucket, elements go in the order they reached that count. {@code null} is allowed.
+ */
+public class CountOrderedMultiset<E> extends AbstractCollection<E> implements Multiset<E> {
+    private final Map<E, Node<E>> nodes = new LinkedHashMap<>();
+    // корзина с нулевым счётчиком: всегда пуста и замыкает кольцо корзин, zero.lower -- корзина с наибольшим счётчиком
+    private final Bucket<E> zero = new Bucket<>(0);
+    private int size;
+    private int modCount;
+    private Set<E> elementSet;
+    private Set<Entry<E>> entrySet;
+    private Collection<Entry<E>> highestCountFirst;
+
+    private static final class Bucket<E> {
+        final int count;
+        Bucket<E> lower = this;
+        Bucket<E> higher = this;
+        Node<E> first;
+        Node<E> last;
+
+        Bucket(int count) {
+            this.count = count;
+        }
+    }
+
+    private static final class Node<E> implements Entry<E> {
+        final E element;
+        Bucket<E> bucket;
+        Node<E> prev;
+        Node<E> next;
+
+        Node(E element, Bucket<E> bucket) {
+            this.element = element;
+            this.bucket = bucket;
+        }
+
+        @Override
+        public E getElement() {
+            return element;
+        }
+
+        @Override
+        public int getCount() {
+            return bucket.count;
+        }
+    }
+
+    private static void checkOccurrences(int occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("occurrences must be non-negative: " + occurrences);
+        }
+    }
+
+    // счётчик элемента не больше size, так что проверка размера защищает и счётчик; relocate переполнения не ждёт
+    private void checkSize(int delta) {
+        if (delta > Integer.MAX_VALUE - size) {
+            throw new IllegalArgumentException("size would overflow: " + size + " + " + delta);
+        }
+    }
+
+    private Bucket<E> insertAfter(Bucket<E> bucket, int count) {
+        Bucket<E> inserted = new Bucket<>(count);
+        inserted.lower = bucket;
+        inserted.higher = bucket.higher;
+        bucket.higher.lower = inserted;
+        bucket.higher = inserted;
+        return inserted;
+    }
+
+    private void detach(Node<E> node) {
+        Bucket<E> bucket = node.bucket;
+        if (bucket == zero) {
+            return;
+        }
+        if (node.prev == null) {
+            bucket.first = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            bucket.last = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        if (bucket.first == null) {
+            bucket.lower.higher = bucket.higher;
+            bucket.higher.lower = bucket.lower;
+        }
+    }
+
+    // убрать узел из корзин; из nodes его удаляет вызывающий код
+    private void forget(Node<E> node) {
+        size -= node.getCount();
+        detach(node);
+        node.bucket = zero;
+        modCount++;
+    }
+
+    /**
+     * Moves the node to the bucket with {@code count}, creating the bucket if needed;
+     * {@code count == 0} removes the element from the multiset.
+     */
+    private void relocate(Node<E> node, int count) {
+        if (count == 0) {
+            forget(node);
+            nodes.remove(node.element);
+            return;
+        }
+        if (count == node.getCount()) {
+            return;
+        }
+        Bucket<E> target = node.bucket;
+        if (count > target.count) {
+            while (target.higher != zero && target.higher.count <= count) {
+                target = target.higher;
+            }
+        } else {
+            while (target.count > count) {
+                target = target.lower;
+            }
+        }
+        if (target.count != count) {
+            target = insertAfter(target, count);
+        }
+        size += count - node.bucket.count;
+        detach(node);
+        node.bucket = target;
+        modCount++;
+        node.prev = target.last;
+        if (target.last == null) {
+            target.first = node;
+        } else {
+            target.last.next = node;
+        }
+        target.last = node;
+    }
+
+    @Override
+    public int count(Object element) {
+        Node<E> node = nodes.get(element);
+        return node == null ? 0 : node.getCount();
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return nodes.containsKey(element);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(E element) {
+        return add(element, 1);
+    }
+
+    @Override
+    public boolean add(E element, int occurrences) {
+        checkOccurrences(occurrences);
+        if (occurrences == 0) {
+            return false;
+        }
+        checkSize(occurrences);
+        Node<E> node = nodes.get(element);
+        if (node == null) {
+            node = new Node<>(element, zero);
+            nodes.put(element, node);
+        }
+        relocate(node, node.getCount() + occurrences);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        return remove(element, 1) > 0;
+    }
+
+    @Override
+    public int remove(Object element, int occurrences) {
+        checkOccurrences(occurrences);
+        Node<E> node = nodes.get(element);
+        if (node == null || occurrences == 0) {
+            return 0;
+        }
+        int removed = Math.min(occurrences, node.getCount());
+        relocate(node, node.getCount() - removed);
+        return removed;
+    }
+
+    @Override
+    public int setCount(E element, int count) {
+        checkOccurrences(count);
+        Node<E> node = nodes.get(element);
+        checkSize(count - (node == null ? 0 : node.getCount()));
+        if (node == null) {
+            if (count == 0) {
+                return 0;
+            }
+            node = new Node<>(element, zero);
+            nodes.put(element, node);
+        }
+        int previous = node.getCount();
+        relocate(node, count);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        nodes.clear();
+        zero.lower = zero;
+        zero.higher = zero;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Returns up to {@code k} entries with the highest counts, highest first.
+     * The entries are snapshots and do not change with the multiset.
+     * <p>
+     * Expected complexity: O(k)
+     */
+    public List<Entry<E>> topK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be non-negative: " + k);
+        }
+        List<Entry<E>> result = new ArrayList<>(Math.min(k, nodes.size()));
+        for (Bucket<E> bucket = zero.lower; bucket != zero && result.size() < k; bucket = bucket.lower) {
+            for (Node<E> node = bucket.first; node != null && result.size() < k; node = node.next) {
+                result.add(snapshot(node.element, bucket.count));
+            }
+        }
+        return result;
+    }
+
+    private static <E> Entry<E> snapshot(E element, int count) {
+        return new Entry<>() {
+            @Override
+            public E getElement() {
+                return element;
+            }
+
+            @Override
+            public int getCount() {
+                return count;
+            }
+        };
+    }
+
+    /**
+     * Returns a view of the entries ordered from the highest count to the lowest.
+     * Iteration is lazy: the first k entries cost O(k); the iterator's {@code remove}
+     * removes all occurrences of the last element. Entries reflect later count changes.
+     * <p>
+     * Expected complexity: O(1)
+     */
+    public Collection<Entry<E>> highestCountFirst() {
+        if (highestCountFirst == null) {
+            highestCountFirst = new AbstractCollection<>() {
+                @Override
+                public @NotNull Iterator<Entry<E>> iterator() {
+                    return new Iterator<>() {
+                        private Bucket<E> bucket = zero.lower;
+                        private Node<E> next = bucket.first;
+                        private Node<E> last;
+                        private int expectedModCount = modCount;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next != null;
+                        }
+
+                        @Override
+                        public Entry<E> next() {
+                            if (expectedModCount != modCount) {
+                                throw new ConcurrentModificationException();
+                            }
+                            if (next == null) {
+                                throw new NoSuchElementException();
+                            }
+                            last = next;
+                            next = next.next;
+                            if (next == null && bucket.lower != zero) {
+                                bucket = bucket.lower;
+                                next = bucket.first;
+                            }
+                            return last;
+                        }
+
+                        @Override
+                        public void remove() {
+                            if (last == null) {
+                                throw new IllegalStateException();
+                            }
+                            if (expectedModCount != modCount) {
+                                throw new ConcurrentModificationException();
+                            }
+                            relocate(last, 0);
+                            expectedModCount = modCount;
+                            last = null;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return nodes.size();
+                }
+            };
+        }
+        return highestCountFirst;
+    }
+
+    /**
+     * Iterates over the nodes in insertion order; {@code remove} removes all occurrences of the last element.
+     */
+    private abstract class NodeIterator<T> implements Iterator<T> {
+        private final Iterator<Node<E>> iterator = nodes.values().iterator();
+        private Node<E> last;
+
+        abstract T get(Node<E> node);
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            last = iterator.next();
+            return get(last);
+        }
+
+        @Override
+        public void remove() {
+            iterator.remove();
+            forget(last);
+        }
+    }
+
+    @Override
+    public Set<E> elementSet() {
+        if (elementSet == null) {
+            elementSet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<E> iterator() {
+                    return new NodeIterator<>() {
+                        @Override
+                        E get(Node<E> node) {
+                            return node.element;
+                        }
+                    };
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return CountOrderedMultiset.this.contains(o);
+                }
+
+                @Override
+                public int size() {
+                    return nodes.size();
+                }
+            };
+        }
+        return elementSet;
+    }
+
+    @Override
+    public Set<Entry<E>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<E>> iterator() {
+                    return new NodeIterator<>() {
+                        @Override
+                        Entry<E> get(Node<E> node) {
+                            return node;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return nodes.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    @Override
+    public @NotNull Iterator<E> iterator() {
+        return new Iterator<>() {
+            private final Iterator<Node<E>> iterator = nodes.values().iterator();
+            private Node<E> node;
+            private int elementNumber;
+            private boolean deleted = true;
+
+            @Override
+            public boolean hasNext() {
+                return elementNumber > 0 || iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (elementNumber == 0) {
+                    node = iterator.next();
+                    elementNumber = node.getCount();
+                }
+                deleted = false;
+                elementNumber--;
+                return node.element;
+            }
+
+            @Override
+            public void remove() {
+                if (deleted) {
+                    throw new IllegalStateException();
+                }
+                if (node.getCount() == 1) {
+                    iterator.remove();
+                    forget(node);
+                } else {
+                    relocate(node, node.getCount() - 1);
+                }
+                deleted = true;
+            }
+        };
+    }
+}
@@ -1,12 +1,19 @@
 package ru.hse.mit.util;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 import org.jetbrains.annotations.NotNull;
 
 public class HashMultiset<E> extends AbstractCollection<E> implements Multiset<E> {
+    private static final int BATCH_UNIT = 1 << 10;
+    private static final int MAX_BATCH = 1 << 25;
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+
     private final Map<E, Integer> data = new LinkedHashMap<>();
     private int size = 0;
+    private Set<Entry<E>> entrySet;
 
     @Override
     public int count(Object element) {
@@ -20,6 +27,13 @@ public class HashMultiset<E> extends AbstractCollection<E> implements Multiset<E
 
     @Override
     public Set<Entry<E>> entrySet() {
+        if (entrySet == null) {
+            entrySet = createEntrySet();
+        }
+        return entrySet;
+    }
+
+    private Set<Entry<E>> createEntrySet() {
         return new AbstractSet<>() {
             @Override
             public @NotNull Iterator<Entry<E>> iterator() {
@@ -64,11 +78,280 @@ public class HashMultiset<E> extends AbstractCollection<E> implements Multiset<E
         };
     }
 
+    /**
+     * Passes every distinct element with its count to {@code action}, in insertion order,
+     * without creating an entry object per element.
+     */
+    public void forEachEntry(@NotNull ObjIntConsumer<? super E> action) {
+        for (Map.Entry<E, Integer> entry : data.entrySet()) {
+            action.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Returns a cursor positioned before the first entry.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Mutable entry that walks over the distinct elements in insertion order.
+     * One cursor serves any number of passes: {@link #reset()} moves it back before the first entry,
+     * so iterating needs no allocation per entry. {@code getElement} and {@code getCount} describe the current entry.
+     */
+    public final class Cursor implements Entry<E> {
+        private Iterator<Map.Entry<E, Integer>> iterator;
+        private Map.Entry<E, Integer> current;
+
+        private Cursor() {
+            reset();
+        }
+
+        public Cursor reset() {
+            iterator = data.entrySet().iterator();
+            current = null;
+            return this;
+        }
+
+        /**
+         * Moves to the next entry; returns {@code false} if there are no more entries.
+         */
+        public boolean advance() {
+            current = iterator.hasNext() ? iterator.next() : null;
+            return current != null;
+        }
+
+        private Map.Entry<E, Integer> current() {
+            if (current == null) {
+                throw new IllegalStateException("cursor is not at an entry");
+            }
+            return current;
+        }
+
+        @Override
+        public E getElement() {
+            return current().getKey();
+        }
+
+        @Override
+        public int getCount() {
+            return current().getValue();
+        }
+
+        /**
+         * Sets the count of the current element; {@code 0} removes it, as {@link #remove()} does.
+         */
+        public void setCount(int count) {
+            checkOccurrences(count);
+            if (count == 0) {
+                remove();
+                return;
+            }
+            size = checkedAdd(size, count - current().getValue(), "size");
+            current.setValue(count);
+        }
+
+        /**
+         * Removes all occurrences of the current element; the cursor stays between entries.
+         */
+        public void remove() {
+            size -= current().getValue();
+            iterator.remove();
+            current = null;
+        }
+    }
+
+    /**
+     * Splits by distinct elements, and a single element with many occurrences by halves of its count.
+     * Reports the exact number of occurrences, so parallel streams size their tasks correctly.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new EntryIteratorSpliterator();
+    }
+
+    /**
+     * Root spliterator: walks the map lazily and splits off growing batches of distinct elements
+     * copied into arrays, like the JDK does for collections without random access.
+     */
+    private final class EntryIteratorSpliterator implements Spliterator<E> {
+        private Iterator<Map.Entry<E, Integer>> iterator;
+        private long remaining = -1;
+        private E element;
+        private int elementNumber;
+        private int batch;
+
+        private void bind() {
+            if (iterator == null) {
+                iterator = data.entrySet().iterator();
+                remaining = size;
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            bind();
+            if (elementNumber == 0) {
+                if (!iterator.hasNext()) {
+                    return false;
+                }
+                Map.Entry<E, Integer> next = iterator.next();
+                element = next.getKey();
+                elementNumber = next.getValue();
+            }
+            elementNumber--;
+            remaining--;
+            action.accept(element);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            bind();
+            for (; elementNumber > 0; elementNumber--) {
+                action.accept(element);
+            }
+            while (iterator.hasNext()) {
+                Map.Entry<E, Integer> next = iterator.next();
+                E nextElement = next.getKey();
+                for (int i = next.getValue(); i > 0; i--) {
+                    action.accept(nextElement);
+                }
+            }
+            remaining = 0;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            bind();
+            int n = Math.min(batch + BATCH_UNIT, MAX_BATCH);
+            Object[] elements = new Object[n];
+            int[] counts = new int[n];
+            int distinct = 0;
+            long occurrences = 0;
+            if (elementNumber > 0) {
+                elements[distinct] = element;
+                counts[distinct++] = elementNumber;
+                occurrences += elementNumber;
+                elementNumber = 0;
+            }
+            while (distinct < n && iterator.hasNext()) {
+                Map.Entry<E, Integer> next = iterator.next();
+                elements[distinct] = next.getKey();
+                counts[distinct++] = next.getValue();
+                occurrences += next.getValue();
+            }
+            if (distinct == 0) {
+                return null;
+            }
+            batch = distinct;
+            remaining -= occurrences;
+            return new BatchSpliterator<>(elements, counts, 0, distinct, 0, occurrences);
+        }
+
+        @Override
+        public long estimateSize() {
+            return iterator == null ? size : remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    /**
+     * Distinct elements {@code elements[index, fence)} with their counts, of which the first
+     * {@code taken} occurrences of {@code elements[index]} are already consumed.
+     */
+    private static final class BatchSpliterator<E> implements Spliterator<E> {
+        private final Object[] elements;
+        private final int[] counts;
+        private int index;
+        private final int fence;
+        private int taken;
+        private long remaining;
+
+        BatchSpliterator(Object[] elements, int[] counts, int index, int fence, int taken, long remaining) {
+            this.elements = elements;
+            this.counts = counts;
+            this.index = index;
+            this.fence = fence;
+            this.taken = taken;
+            this.remaining = remaining;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (index >= fence) {
+                return false;
+            }
+            E element = (E) elements[index];
+            if (++taken == counts[index]) {
+                index++;
+                taken = 0;
+            }
+            remaining--;
+            action.accept(element);
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            for (; index < fence; index++, taken = 0) {
+                E element = (E) elements[index];
+                for (int i = counts[index] - taken; i > 0; i--) {
+                    action.accept(element);
+                }
+            }
+            remaining = 0;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            if (fence - index >= 2) {
+                int mid = (index + fence) >>> 1;
+                long occurrences = -taken;
+                for (int i = index; i < mid; i++) {
+                    occurrences += counts[i];
+                }
+                Spliterator<E> prefix = new BatchSpliterator<>(elements, counts, index, mid, taken, occurrences);
+                index = mid;
+                taken = 0;
+                remaining -= occurrences;
+                return prefix;
+            }
+            int left = index < fence ? counts[index] - taken : 0;
+            if (left < 2) {
+                return null;
+            }
+            int half = left / 2;
+            Spliterator<E> prefix = new BatchSpliterator<>(
+                    new Object[]{elements[index]}, new int[]{half}, 0, 1, 0, half);
+            taken += half;
+            remaining -= half;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
     @Override
     public @NotNull Iterator<E> iterator() {
         return new Iterator<>() {
             private final Iterator<Map.Entry<E, Integer>> iterator = data.entrySet().iterator();
-            private E element;
+            private Map.Entry<E, Integer> entry;
             private int elementNumber;
             private boolean deleted = true;
 
@@ -81,12 +364,11 @@ public class HashMultiset<E> extends AbstractCollection<E> implements Multiset<E
             public E next() {
                 deleted = false;
                 if (elementNumber == 0) {
-                    Map.Entry<E, Integer> next = iterator.next();
-                    element = next.getKey();
-                    elementNumber = next.getValue();
+                    entry = iterator.next();
+                    elementNumber = entry.getValue();
                 }
                 elementNumber--;
-                return element;
+                return entry.getKey();
             }
 
             @Override
@@ -94,11 +376,11 @@ public class HashMultiset<E> extends AbstractCollection<E> implements Multiset<E
                 if (deleted) {
                     throw new IllegalStateException();
                 }
-                int number = data.get(element);
+                int number = entry.getValue();
                 if (number == 1) {
                     iterator.remove();
                 } else {
-                    data.put(element, number - 1);
+                    entry.setValue(number - 1);
                 }
                 size--;
                 deleted = true;
@@ -119,23 +401,69 @@ public class HashMultiset<E> extends AbstractCollection<E> implements Multiset<E
 
     @Override
     public boolean add(E element) {
-        data.put(element, data.getOrDefault(element, 0) + 1);
-        size++;
-        return true;
+        return add(element, 1);
     }
 
     @Override
     public boolean remove(Object element) {
-        if (!data.containsKey(element)) {
+        return remove(element, 1) > 0;
+    }
+
+    private static void checkOccurrences(int occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("occurrences must be non-negative: " + occurrences);
+        }
+    }
+
+    // счётчик или размер, не помещающийся в int, -- ошибка вызывающего, а не молчаливое переполнение
+    private static int checkedAdd(int value, int delta, String what) {
+        try {
+            return Math.addExact(value, delta);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(what + " would overflow: " + value + " + " + delta);
+        }
+    }
+
+    @Override
+    public boolean add(E element, int occurrences) {
+        checkOccurrences(occurrences);
+        if (occurrences == 0) {
             return false;
         }
-        int number = data.get(element);
-        if (number == 1) {
+        int number = checkedAdd(data.getOrDefault(element, 0), occurrences, "count");
+        size = checkedAdd(size, occurrences, "size");
+        data.put(element, number);
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int remove(Object element, int occurrences) {
+        checkOccurrences(occurrences);
+        Integer number = data.get(element);
+        if (number == null || occurrences == 0) {
+            return 0;
+        }
+        if (number <= occurrences) {
+            data.remove(element);
+            size -= number;
+            return number;
+        }
+        data.put((E) element, number - occurrences);
+        size -= occurrences;
+        return occurrences;
+    }
+
+    @Override
+    public int setCount(E element, int count) {
+        checkOccurrences(count);
+        int previous = data.getOrDefault(element, 0);
+        size = checkedAdd(size, count - previous, "size");
+        if (count == 0) {
             data.remove(element);
         } else {
-            data.put((E) element, number - 1);
+            data.put(element, count);
         }
-        size--;
-        return true;
+        return previous;
     }
 }
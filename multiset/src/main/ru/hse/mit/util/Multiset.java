@@ -29,6 +29,52 @@ public interface Multiset<E> extends Collection<E> {
      */
     Set<Entry<E>> entrySet();
 
+    /**
+     * Adds {@code occurrences} occurrences of an element at once.
+     * Returns {@code true} if the multiset changed, that is, if {@code occurrences > 0}.
+     * <p>
+     * Expected complexity: Same as `add`
+     *
+     * @throws IllegalArgumentException if {@code occurrences} is negative,
+     *                                  or if the count of the element or the size would exceed {@code Integer.MAX_VALUE}
+     */
+    boolean add(E element, int occurrences);
+
+    /**
+     * Removes up to {@code occurrences} occurrences of an element at once.
+     * Returns the number of occurrences actually removed.
+     * <p>
+     * Expected complexity: Same as `remove`
+     *
+     * @throws IllegalArgumentException if {@code occurrences} is negative
+     */
+    int remove(Object element, int occurrences);
+
+    /**
+     * Sets the number of occurrences of an element; {@code 0} removes the element completely.
+     * Returns the previous count.
+     * <p>
+     * Expected complexity: Same as `add`
+     *
+     * @throws IllegalArgumentException if {@code count} is negative,
+     *                                  or if the size would exceed {@code Integer.MAX_VALUE}
+     */
+    int setCount(E element, int count);
+
+    /**
+     * Adds all occurrences of all elements of {@code other}, adding each count in one step.
+     * Returns {@code true} if the multiset changed.
+     * <p>
+     * Expected complexity: O(number of distinct elements of {@code other})
+     */
+    default boolean addAll(@NotNull Multiset<? extends E> other) {
+        boolean changed = false;
+        for (Entry<? extends E> entry : other.entrySet()) {
+            changed |= add(entry.getElement(), entry.getCount());
+        }
+        return changed;
+    }
+
     /**
      * Elements that occur multiple times in the multiset will appear multiple times in this iterator.
      * <p>
@@ -0,0 +1,169 @@
+package ru.hse.mit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApproximateCounterTest {
+
+    // поток из n событий с распределением Ципфа на distinct элементах: i-й встречается с частотой ~ 1 / (i + 1)
+    private static int[] zipf(int n, int distinct, long seed) {
+        double[] cumulative = new double[distinct];
+        double sum = 0;
+        for (int i = 0; i < distinct; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        Random random = new Random(seed);
+        int[] events = new int[n];
+        for (int i = 0; i < n; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            events[i] = index < 0 ? -index - 1 : index;
+        }
+        return events;
+    }
+
+    private static Map<Integer, Integer> exactCounts(int[] events) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int event : events) {
+            counts.merge(event, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Test
+    public void testEstimatesAreBounded() {
+        int[] events = zipf(200000, 10000, 24);
+        ApproximateCounter<Integer> counter = new ApproximateCounter<>(0.001, 0.99, 20);
+        for (int event : events) {
+            counter.add(event);
+        }
+        assertEquals(events.length, counter.size());
+        Map<Integer, Integer> exact = exactCounts(events);
+        int badEstimates = 0;
+        for (int element = 0; element < 10000; element++) {
+            long estimate = counter.count(element);
+            int count = exact.getOrDefault(element, 0);
+            assertTrue(estimate >= count, "underestimated " + element);
+            if (estimate > count + 0.001 * events.length) {
+                badEstimates++;
+            }
+        }
+        assertTrue(badEstimates < 10000 * 0.01, badEstimates + " estimates out of bounds");
+    }
+
+    @Test
+    public void testHeavyHitters() {
+        int[] events = zipf(200000, 100000, 24);
+        ApproximateCounter<Integer> counter = new ApproximateCounter<>(0.001, 0.99, 50);
+        for (int event : events) {
+            counter.add(event);
+        }
+        Map<Integer, Integer> exact = exactCounts(events);
+        List<ApproximateCounter.HeavyHitter<Integer>> top = counter.heavyHitters();
+        assertEquals(50, top.size());
+        Set<Integer> first = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            first.add(top.get(i).getElement());
+        }
+        assertEquals(Set.of(0, 1, 2, 3, 4), first);
+        for (ApproximateCounter.HeavyHitter<Integer> hitter : top) {
+            int count = exact.get(hitter.getElement());
+            assertTrue(hitter.getGuaranteedCount() <= count && count <= hitter.getCount(), hitter.toString());
+        }
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).getCount() >= top.get(i).getCount());
+        }
+    }
+
+    @Test
+    public void testMergeEqualsSequentialCounting() throws InterruptedException {
+        int[] events = zipf(400000, 10000, 24);
+        List<ApproximateCounter<Integer>> counters = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int part = 0; part < 4; part++) {
+            ApproximateCounter<Integer> counter = new ApproximateCounter<>(0.001, 0.99, 30);
+            counters.add(counter);
+            int from = part * events.length / 4;
+            int to = (part + 1) * events.length / 4;
+            threads.add(new Thread(() -> {
+                for (int i = from; i < to; i++) {
+                    counter.add(events[i]);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        ApproximateCounter<Integer> merged = counters.get(0);
+        for (int part = 1; part < 4; part++) {
+            merged.merge(counters.get(part));
+        }
+        ApproximateCounter<Integer> sequential = new ApproximateCounter<>(0.001, 0.99, 30);
+        for (int event : events) {
+            sequential.add(event);
+        }
+        assertEquals(sequential.size(), merged.size());
+        Map<Integer, Integer> exact = exactCounts(events);
+        for (int element = 0; element < 10000; element++) {
+            assertTrue(merged.count(element) >= exact.getOrDefault(element, 0));
+        }
+        List<ApproximateCounter.HeavyHitter<Integer>> top = merged.heavyHitters();
+        assertEquals(30, top.size());
+        assertEquals(0, top.get(0).getElement());
+        for (ApproximateCounter.HeavyHitter<Integer> hitter : top) {
+            int count = exact.get(hitter.getElement());
+            assertTrue(hitter.getGuaranteedCount() <= count && count <= hitter.getCount(), hitter.toString());
+        }
+    }
+
+    @Test
+    public void testArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateCounter<>(0, 0.9, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateCounter<>(0.01, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateCounter<>(0.01, 0.9, 0));
+        ApproximateCounter<String> counter = new ApproximateCounter<>(0.01, 0.9, 10);
+        assertThrows(IllegalArgumentException.class, () -> counter.add("a", -1));
+        assertThrows(IllegalArgumentException.class, () -> counter.merge(new ApproximateCounter<>(0.02, 0.9, 10)));
+        assertThrows(IllegalArgumentException.class, () -> counter.merge(counter));
+        counter.add(null, 3);
+        counter.add("a", 1000);
+        assertEquals(3, counter.count(null));
+        assertEquals(1000, counter.count("a"));
+        assertEquals(1003, counter.size());
+        counter.clear();
+        assertTrue(counter.isEmpty());
+        assertEquals(0, counter.count("a"));
+        assertTrue(counter.heavyHitters().isEmpty());
+    }
+
+    @Test
+    public void testHeavyElementFirstIsNotEvicted() {
+        ApproximateCounter<String> counter = new ApproximateCounter<>(0.01, 0.9, 3);
+        counter.add("A", 100);
+        counter.add("B");
+        counter.add("C");
+        counter.add("D");
+        counter.add("E");
+        List<ApproximateCounter.HeavyHitter<String>> top = counter.heavyHitters();
+        assertEquals(3, top.size());
+        assertEquals("A", top.get(0).getElement());
+        assertEquals(100, top.get(0).getGuaranteedCount());
+        for (int i = 0; i < 100; i++) {
+            counter.add("x" + i);
+        }
+        assertEquals("A", counter.heavyHitters().get(0).getElement());
+    }
+
+    @Test
+    public void testTooSmallEpsilon() {
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateCounter<>(1e-9, 0.99, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateCounter<>(1e-12, 0.5, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateCounter<>(Double.MIN_VALUE, 0.5, 10));
+    }
+}
@@ -0,0 +1,150 @@
+package ru.hse.mit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class CompactHashMultisetTest {
+
+    private static <E> List<Multiset.Entry<E>> entries(Multiset<E> multiset) {
+        return new ArrayList<>(multiset.entrySet());
+    }
+
+    private static <E> void assertSameState(Multiset<E> expected, Multiset<E> actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+        assertEquals(new ArrayList<>(expected.elementSet()), new ArrayList<>(actual.elementSet()));
+        List<Multiset.Entry<E>> expectedEntries = entries(expected);
+        List<Multiset.Entry<E>> actualEntries = entries(actual);
+        assertEquals(expectedEntries.size(), actualEntries.size());
+        for (int i = 0; i < expectedEntries.size(); i++) {
+            assertEquals(expectedEntries.get(i).getElement(), actualEntries.get(i).getElement());
+            assertEquals(expectedEntries.get(i).getCount(), actualEntries.get(i).getCount());
+        }
+    }
+
+    @Test
+    public void testSimple() {
+        Multiset<Integer> multiset = new CompactHashMultiset<>();
+        multiset.add(3);
+        multiset.add(1);
+        multiset.add(3);
+        multiset.add(null);
+        assertEquals(4, multiset.size());
+        assertEquals(2, multiset.count(3));
+        assertEquals(1, multiset.count(null));
+        assertEquals(0, multiset.count(2));
+        assertTrue(multiset.contains(1));
+        assertFalse(multiset.contains(2));
+        assertEquals(Arrays.asList(3, 3, 1, null), new ArrayList<>(multiset));
+        assertTrue(multiset.remove(3));
+        assertTrue(multiset.remove(null));
+        assertFalse(multiset.remove(null));
+        assertEquals(Arrays.asList(3, 1), new ArrayList<>(multiset));
+        assertThrows(IllegalArgumentException.class, () -> new CompactHashMultiset<>(-1));
+    }
+
+    @Test
+    public void testKeepsInsertionOrderThroughCompaction() {
+        Multiset<Integer> expected = new HashMultiset<>();
+        Multiset<Integer> actual = new CompactHashMultiset<>();
+        Random random = new Random(21);
+        for (int i = 0; i < 100000; i++) {
+            int element = random.nextInt(500);
+            if (random.nextInt(5) < 2) {
+                assertEquals(expected.remove(element), actual.remove(element));
+            } else {
+                assertEquals(expected.add(element), actual.add(element));
+            }
+            if (i % 10000 == 0) {
+                assertSameState(expected, actual);
+            }
+        }
+        assertSameState(expected, actual);
+        for (int element = 0; element < 500; element++) {
+            assertEquals(expected.count(element), actual.count(element));
+        }
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        Multiset<Integer> expected = new HashMultiset<>();
+        Multiset<Integer> actual = new CompactHashMultiset<>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add(i % 37);
+            actual.add(i % 37);
+        }
+        Iterator<Integer> expectedIterator = expected.iterator();
+        Iterator<Integer> actualIterator = actual.iterator();
+        for (int i = 0; expectedIterator.hasNext(); i++) {
+            assertTrue(actualIterator.hasNext());
+            assertEquals(expectedIterator.next(), actualIterator.next());
+            if (i % 3 != 0) {
+                expectedIterator.remove();
+                actualIterator.remove();
+                assertThrows(IllegalStateException.class, actualIterator::remove);
+            }
+        }
+        assertFalse(actualIterator.hasNext());
+        assertSameState(expected, actual);
+
+        Iterator<Multiset.Entry<Integer>> entries = actual.entrySet().iterator();
+        while (entries.hasNext()) {
+            if (entries.next().getElement() % 2 == 0) {
+                entries.remove();
+            }
+        }
+        for (Iterator<Multiset.Entry<Integer>> it = expected.entrySet().iterator(); it.hasNext(); ) {
+            if (it.next().getElement() % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertSameState(expected, actual);
+        actual.clear();
+        assertTrue(actual.isEmpty());
+        assertFalse(actual.iterator().hasNext());
+    }
+
+    @Test
+    public void testStructuralChangeDuringIteration() {
+        Multiset<String> multiset = new CompactHashMultiset<>();
+        multiset.add("a");
+        multiset.add("b");
+        Iterator<String> iterator = multiset.elementSet().iterator();
+        iterator.next();
+        multiset.add("a");
+        assertEquals("b", iterator.next());
+        multiset.add("c");
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+    }
+
+    @Test
+    public void testCountingDoesNotAllocate() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        Integer[] elements = new Integer[1000];
+        Multiset<Integer> multiset = new CompactHashMultiset<>();
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = i * 31;
+            multiset.add(elements[i]);
+        }
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int round = 0; round < 1000; round++) {
+            for (Integer element : elements) {
+                multiset.add(element);
+            }
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        assertEquals(1001 * 1000, multiset.size());
+        assertEquals(1001, multiset.count(31));
+        assertTrue(allocated < 1024, allocated + " bytes allocated");
+    }
+}
@@ -0,0 +1,170 @@
+package ru.hse.mit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentHashMultisetTest {
+
+    private static void runInThreads(int threads, Runnable task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            fail(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSimple() {
+        ConcurrentHashMultiset<Integer> multiset = new ConcurrentHashMultiset<>();
+        multiset.add(1);
+        multiset.add(2);
+        multiset.add(1);
+        assertEquals(3, multiset.size());
+        assertEquals(2, multiset.count(1));
+        assertEquals(0, multiset.count(3));
+        assertEquals(0, multiset.count(null));
+        assertTrue(multiset.remove(1));
+        assertFalse(multiset.remove(3));
+        assertEquals(1, multiset.count(1));
+        List<Integer> elements = new ArrayList<>(multiset);
+        Collections.sort(elements);
+        assertEquals(Arrays.asList(1, 2), elements);
+        assertThrows(NullPointerException.class, () -> multiset.add(null));
+    }
+
+    @Test
+    public void testBulkOperations() {
+        ConcurrentHashMultiset<String> multiset = new ConcurrentHashMultiset<>();
+        assertTrue(multiset.add("a", 1000000));
+        assertFalse(multiset.add("a", 0));
+        assertEquals(1000000, multiset.count("a"));
+        assertEquals(400000, multiset.remove("a", 400000));
+        assertEquals(600000, multiset.remove("a", 1000000));
+        assertEquals(0, multiset.remove("a", 1));
+        assertFalse(multiset.contains("a"));
+        assertTrue(multiset.isEmpty());
+        assertEquals(0, multiset.setCount("b", 5));
+        assertEquals(5, multiset.setCount("b", 2));
+        assertEquals(2, multiset.size());
+        assertThrows(IllegalArgumentException.class, () -> multiset.add("b", -1));
+        assertThrows(IllegalArgumentException.class, () -> multiset.setCount("b", -1));
+    }
+
+    @Test
+    public void testViewsSkipZeroCounts() {
+        ConcurrentHashMultiset<String> multiset = new ConcurrentHashMultiset<>();
+        multiset.add("a", 3);
+        multiset.add("b", 2);
+        multiset.add("c");
+        multiset.remove("c");
+        assertEquals(Set.of("a", "b"), new HashSet<>(multiset.elementSet()));
+        assertEquals(2, multiset.entrySet().size());
+        Map<String, Integer> counts = new HashMap<>();
+        for (Multiset.Entry<String> entry : multiset.entrySet()) {
+            counts.put(entry.getElement(), entry.getCount());
+        }
+        assertEquals(Map.of("a", 3, "b", 2), counts);
+        assertTrue(multiset.elementSet().remove("a"));
+        assertFalse(multiset.elementSet().remove("c"));
+        assertEquals(2, multiset.size());
+
+        for (Iterator<String> it = multiset.iterator(); it.hasNext(); ) {
+            it.next();
+            it.remove();
+            assertThrows(IllegalStateException.class, it::remove);
+        }
+        assertTrue(multiset.isEmpty());
+        multiset.add("d");
+        multiset.clear();
+        assertFalse(multiset.iterator().hasNext());
+    }
+
+    @Test
+    public void testConcurrentAdd() throws InterruptedException {
+        ConcurrentHashMultiset<Integer> multiset = new ConcurrentHashMultiset<>();
+        runInThreads(8, () -> {
+            for (int i = 0; i < 100000; i++) {
+                multiset.add(i % 10);
+            }
+        });
+        assertEquals(800000, multiset.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(80000, multiset.count(i));
+        }
+    }
+
+    @Test
+    public void testConcurrentAddAndRemove() throws InterruptedException {
+        ConcurrentHashMultiset<Integer> multiset = new ConcurrentHashMultiset<>();
+        int[] removed = new int[8];
+        runInThreads(8, () -> {
+            int thread = (int) (Thread.currentThread().getId() % 8);
+            int ownRemoved = 0;
+            for (int i = 0; i < 50000; i++) {
+                multiset.add(i % 3, 2);
+                ownRemoved += multiset.remove(i % 3, 3);
+                assertTrue(multiset.count(i % 3) >= 0);
+            }
+            synchronized (removed) {
+                removed[thread] += ownRemoved;
+            }
+        });
+        int totalRemoved = Arrays.stream(removed).sum();
+        assertEquals(8 * 50000 * 2 - totalRemoved, multiset.size());
+    }
+
+    @Test
+    public void testConcurrentSetCount() throws InterruptedException {
+        ConcurrentHashMultiset<String> multiset = new ConcurrentHashMultiset<>();
+        runInThreads(4, () -> {
+            for (int i = 0; i < 10000; i++) {
+                int previous = multiset.setCount("x", i % 2 == 0 ? 10 : 20);
+                assertTrue(previous == 0 || previous == 10 || previous == 20);
+            }
+        });
+        int count = multiset.count("x");
+        assertTrue(count == 10 || count == 20);
+    }
+
+    @Test
+    public void testAddRacingWithRemovalToZero() throws InterruptedException {
+        ConcurrentHashMultiset<String> multiset = new ConcurrentHashMultiset<>();
+        long[] removed = new long[1];
+        runInThreads(8, () -> {
+            long ownRemoved = 0;
+            for (int i = 0; i < 100000; i++) {
+                multiset.add("x");
+                ownRemoved += multiset.remove("x", 2);
+                if (i % 1000 == 0) {
+                    ownRemoved += multiset.setCount("x", 0);
+                }
+            }
+            synchronized (removed) {
+                removed[0] += ownRemoved;
+            }
+        });
+        assertEquals(8 * 100000 - removed[0], multiset.count("x"));
+        multiset.setCount("x", 0);
+        assertTrue(multiset.isEmpty());
+        assertFalse(multiset.iterator().hasNext());
+    }
+}
@@ -0,0 +1,160 @@
+package ru.hse.mit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountOrderedMultisetTest {
+
+    private static <E> List<E> elements(Iterable<Multiset.Entry<E>> entries) {
+        List<E> result = new ArrayList<>();
+        for (Multiset.Entry<E> entry : entries) {
+            result.add(entry.getElement());
+        }
+        return result;
+    }
+
+    private static <E> List<Integer> counts(Iterable<Multiset.Entry<E>> entries) {
+        List<Integer> result = new ArrayList<>();
+        for (Multiset.Entry<E> entry : entries) {
+            result.add(entry.getCount());
+        }
+        return result;
+    }
+
+    // ожидаемый порядок считается сортировкой, а проверяемый -- без неё
+    private static void assertOrderedLike(Multiset<Integer> expected, CountOrderedMultiset<Integer> actual) {
+        List<Multiset.Entry<Integer>> sorted = new ArrayList<>(expected.entrySet());
+        sorted.sort(Comparator.comparingInt(entry -> -entry.getCount()));
+        assertEquals(counts(sorted), counts(actual.highestCountFirst()));
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+        for (Multiset.Entry<Integer> entry : actual.highestCountFirst()) {
+            assertEquals(expected.count(entry.getElement()), entry.getCount());
+        }
+    }
+
+    @Test
+    public void testTopK() {
+        CountOrderedMultiset<String> multiset = new CountOrderedMultiset<>();
+        multiset.add("a", 5);
+        multiset.add("b", 7);
+        multiset.add("c");
+        multiset.add("d", 5);
+        assertEquals(List.of("b", "a", "d"), elements(multiset.topK(3)));
+        assertEquals(List.of(7, 5, 5), counts(multiset.topK(3)));
+        assertEquals(List.of("b", "a", "d", "c"), elements(multiset.topK(100)));
+        assertTrue(multiset.topK(0).isEmpty());
+        multiset.add("a");
+        multiset.remove("b", 4);
+        assertEquals(List.of("a", "d", "b", "c"), elements(multiset.highestCountFirst()));
+        assertEquals(List.of(6, 5, 3, 1), counts(multiset.highestCountFirst()));
+        assertEquals(4, multiset.highestCountFirst().size());
+        assertThrows(IllegalArgumentException.class, () -> multiset.topK(-1));
+    }
+
+    @Test
+    public void testTopKIsSnapshot() {
+        CountOrderedMultiset<String> multiset = new CountOrderedMultiset<>();
+        multiset.add("a", 2);
+        List<Multiset.Entry<String>> top = multiset.topK(1);
+        multiset.add("a");
+        assertEquals(2, top.get(0).getCount());
+        assertEquals(3, multiset.highestCountFirst().iterator().next().getCount());
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Multiset<Integer> expected = new HashMultiset<>();
+        CountOrderedMultiset<Integer> actual = new CountOrderedMultiset<>();
+        Random random = new Random(23);
+        for (int i = 0; i < 20000; i++) {
+            int element = random.nextInt(200);
+            switch (random.nextInt(6)) {
+                case 0:
+                    assertEquals(expected.remove(element), actual.remove(element));
+                    break;
+                case 1:
+                    int occurrences = random.nextInt(20);
+                    assertEquals(expected.remove(element, occurrences), actual.remove(element, occurrences));
+                    break;
+                case 2:
+                    int count = random.nextInt(30);
+                    assertEquals(expected.setCount(element, count), actual.setCount(element, count));
+                    break;
+                case 3:
+                    occurrences = random.nextInt(10);
+                    assertEquals(expected.add(element, occurrences), actual.add(element, occurrences));
+                    break;
+                default:
+                    assertEquals(expected.add(element), actual.add(element));
+            }
+            if (i % 1000 == 0) {
+                assertOrderedLike(expected, actual);
+            }
+        }
+        assertOrderedLike(expected, actual);
+    }
+
+    @Test
+    public void testIteratorRemoveKeepsOrder() {
+        CountOrderedMultiset<Integer> multiset = new CountOrderedMultiset<>();
+        for (int i = 1; i <= 5; i++) {
+            multiset.add(i, i);
+        }
+        Iterator<Integer> iterator = multiset.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 1) {
+                iterator.remove();
+            }
+        }
+        assertEquals(List.of(4, 2), elements(multiset.highestCountFirst()));
+        assertEquals(List.of(4, 2), counts(multiset.highestCountFirst()));
+        assertEquals(6, multiset.size());
+
+        Iterator<Multiset.Entry<Integer>> entries = multiset.entrySet().iterator();
+        assertEquals(2, entries.next().getElement());
+        entries.remove();
+        assertEquals(List.of(4), elements(multiset.highestCountFirst()));
+        assertEquals(List.of(4), new ArrayList<>(multiset.elementSet()));
+        multiset.add(9, 2);
+
+        Iterator<Multiset.Entry<Integer>> top = multiset.highestCountFirst().iterator();
+        assertEquals(4, top.next().getElement());
+        top.remove();
+        assertThrows(IllegalStateException.class, top::remove);
+        assertEquals(List.of(9), new ArrayList<>(multiset.elementSet()));
+        assertEquals(2, multiset.size());
+        multiset.add(7);
+        assertThrows(ConcurrentModificationException.class, top::next);
+        multiset.clear();
+        assertTrue(multiset.topK(5).isEmpty());
+        assertFalse(multiset.highestCountFirst().iterator().hasNext());
+    }
+
+    @Test
+    public void testNull() {
+        CountOrderedMultiset<String> multiset = new CountOrderedMultiset<>();
+        multiset.add(null, 2);
+        multiset.add("a");
+        assertEquals(Arrays.asList(null, "a"), elements(multiset.topK(2)));
+        assertEquals(2, multiset.count(null));
+    }
+
+    @Test
+    public void testOverflow() {
+        CountOrderedMultiset<String> multiset = new CountOrderedMultiset<>();
+        multiset.add("x", Integer.MAX_VALUE);
+        assertThrows(IllegalArgumentException.class, () -> multiset.add("x", 1));
+        assertThrows(IllegalArgumentException.class, () -> multiset.add("y"));
+        assertThrows(IllegalArgumentException.class, () -> multiset.setCount("y", 1));
+        assertFalse(multiset.contains("y"));
+        assertEquals(Integer.MAX_VALUE, multiset.size());
+        assertEquals(Integer.MAX_VALUE, multiset.setCount("x", 1));
+        multiset.add("y", Integer.MAX_VALUE - 1);
+        assertEquals(List.of("y", "x"), elements(multiset.topK(2)));
+        assertEquals(Integer.MAX_VALUE, multiset.size());
+    }
+}
@@ -0,0 +1,130 @@
+package ru.hse.mit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashMultisetTraversalTest {
+
+    @SafeVarargs
+    private static <E> HashMultiset<E> createMultiset(E... data) {
+        HashMultiset<E> multiset = new HashMultiset<>();
+        multiset.addAll(Arrays.asList(data));
+        return multiset;
+    }
+
+    @Test
+    public void testForEachEntry() {
+        HashMultiset<String> multiset = createMultiset("b", "a", "b", null);
+        List<String> elements = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        multiset.forEachEntry((element, count) -> {
+            elements.add(element);
+            counts.add(count);
+        });
+        assertEquals(Arrays.asList("b", "a", null), elements);
+        assertEquals(List.of(2, 1, 1), counts);
+        assertSame(multiset.entrySet(), multiset.entrySet());
+    }
+
+    @Test
+    public void testCursor() {
+        HashMultiset<String> multiset = createMultiset("a", "b", "b", "c", "c", "c");
+        HashMultiset<String>.Cursor cursor = multiset.cursor();
+        assertThrows(IllegalStateException.class, cursor::getElement);
+        List<String> elements = new ArrayList<>();
+        while (cursor.advance()) {
+            elements.add(cursor.getElement() + cursor.getCount());
+            if (cursor.getElement().equals("a")) {
+                cursor.setCount(10);
+            } else if (cursor.getElement().equals("b")) {
+                cursor.remove();
+                assertThrows(IllegalStateException.class, cursor::remove);
+            }
+        }
+        assertEquals(List.of("a1", "b2", "c3"), elements);
+        assertFalse(cursor.advance());
+        assertEquals(13, multiset.size());
+        assertEquals(10, multiset.count("a"));
+        assertFalse(multiset.contains("b"));
+
+        assertSame(cursor, cursor.reset());
+        assertTrue(cursor.advance());
+        assertEquals("a", cursor.getElement());
+        cursor.setCount(0);
+        assertTrue(cursor.advance());
+        assertEquals("c", cursor.getElement());
+        assertFalse(cursor.advance());
+        assertEquals(3, multiset.size());
+        assertEquals(List.of("c", "c", "c"), new ArrayList<>(multiset));
+    }
+
+    @Test
+    public void testSpliteratorReportsOccurrences() {
+        HashMultiset<Integer> multiset = new HashMultiset<>();
+        for (int i = 0; i < 5000; i++) {
+            multiset.add(i, i % 10 + 1);
+        }
+        Spliterator<Integer> root = multiset.spliterator();
+        assertTrue(root.hasCharacteristics(Spliterator.SIZED));
+        assertTrue(root.hasCharacteristics(Spliterator.ORDERED));
+        assertEquals(multiset.size(), root.getExactSizeIfKnown());
+        Spliterator<Integer> prefix = root.trySplit();
+        assertNotNull(prefix);
+        assertEquals(multiset.size(), prefix.estimateSize() + root.estimateSize());
+        Spliterator<Integer> quarter = prefix.trySplit();
+        assertNotNull(quarter);
+        long counted = 0;
+        List<Integer> seen = new ArrayList<>();
+        for (Spliterator<Integer> part : List.of(quarter, prefix, root)) {
+            long expected = part.estimateSize();
+            long before = seen.size();
+            part.forEachRemaining(seen::add);
+            assertEquals(expected, seen.size() - before);
+            counted += expected;
+        }
+        assertEquals(multiset.size(), counted);
+        assertEquals(new ArrayList<>(multiset), seen);
+    }
+
+    @Test
+    public void testSingleElementIsSplitByOccurrences() {
+        HashMultiset<String> multiset = new HashMultiset<>();
+        multiset.add("x", 1000);
+        Spliterator<String> batch = multiset.spliterator().trySplit();
+        assertNotNull(batch);
+        Spliterator<String> half = batch.trySplit();
+        assertNotNull(half);
+        assertEquals(500, half.estimateSize());
+        assertEquals(500, batch.estimateSize());
+        assertTrue(half.tryAdvance(element -> assertEquals("x", element)));
+        assertEquals(499, half.estimateSize());
+        Spliterator<String> quarter = half.trySplit();
+        assertEquals(249, quarter.estimateSize());
+        assertEquals(250, half.estimateSize());
+    }
+
+    @Test
+    public void testParallelStream() {
+        HashMultiset<Integer> multiset = new HashMultiset<>();
+        for (int i = 0; i < 100000; i++) {
+            multiset.add(i % 1000, i % 7 + 1);
+        }
+        multiset.add(-1, 1000000);
+        assertEquals(multiset.size(), multiset.parallelStream().count());
+        long sum = multiset.parallelStream().mapToLong(Integer::longValue).sum();
+        long expected = 0;
+        for (Integer element : multiset) {
+            expected += element;
+        }
+        assertEquals(expected, sum);
+        Map<Integer, Long> counts = multiset.parallelStream()
+                .collect(Collectors.groupingByConcurrent(element -> element, Collectors.counting()));
+        assertEquals(1000000, counts.get(-1));
+        assertEquals(multiset.count(7), counts.get(7));
+        assertEquals(new ArrayList<>(multiset), multiset.parallelStream().collect(Collectors.toList()));
+    }
+}
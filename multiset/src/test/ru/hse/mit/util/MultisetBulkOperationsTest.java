@@ -0,0 +1,130 @@
+package ru.hse.mit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultisetBulkOperationsTest {
+
+    private static final List<Supplier<Multiset<String>>> IMPLEMENTATIONS = List.of(
+            HashMultiset::new,
+            CompactHashMultiset::new,
+            ConcurrentHashMultiset::new
+    );
+
+    private static Map<String, Integer> counts(Multiset<String> multiset) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Multiset.Entry<String> entry : multiset.entrySet()) {
+            counts.put(entry.getElement(), entry.getCount());
+        }
+        return counts;
+    }
+
+    @Test
+    public void testAddOccurrences() {
+        for (Supplier<Multiset<String>> implementation : IMPLEMENTATIONS) {
+            Multiset<String> multiset = implementation.get();
+            assertTrue(multiset.add("a", 1000000));
+            assertTrue(multiset.add("b", 1));
+            assertTrue(multiset.add("a", 5));
+            assertFalse(multiset.add("c", 0));
+            assertFalse(multiset.contains("c"));
+            assertEquals(1000005, multiset.count("a"));
+            assertEquals(1000006, multiset.size());
+            assertEquals(Map.of("a", 1000005, "b", 1), counts(multiset));
+            assertThrows(IllegalArgumentException.class, () -> multiset.add("a", -1));
+        }
+    }
+
+    @Test
+    public void testRemoveOccurrences() {
+        for (Supplier<Multiset<String>> implementation : IMPLEMENTATIONS) {
+            Multiset<String> multiset = implementation.get();
+            multiset.add("a", 10);
+            multiset.add("b", 3);
+            assertEquals(4, multiset.remove("a", 4));
+            assertEquals(6, multiset.count("a"));
+            assertEquals(3, multiset.remove("b", 100));
+            assertFalse(multiset.contains("b"));
+            assertEquals(0, multiset.remove("b", 1));
+            assertEquals(0, multiset.remove("a", 0));
+            assertEquals(0, multiset.remove(42, 1));
+            assertEquals(6, multiset.size());
+            assertEquals(Map.of("a", 6), counts(multiset));
+            assertThrows(IllegalArgumentException.class, () -> multiset.remove("a", -1));
+        }
+    }
+
+    @Test
+    public void testSetCount() {
+        for (Supplier<Multiset<String>> implementation : IMPLEMENTATIONS) {
+            Multiset<String> multiset = implementation.get();
+            assertEquals(0, multiset.setCount("a", 7));
+            assertEquals(7, multiset.setCount("a", 2));
+            assertEquals(0, multiset.setCount("b", 0));
+            assertEquals(0, multiset.setCount("c", 1));
+            assertEquals(3, multiset.size());
+            assertEquals(2, multiset.setCount("a", 0));
+            assertFalse(multiset.contains("a"));
+            assertEquals(1, multiset.size());
+            assertEquals(List.of("c"), new ArrayList<>(multiset));
+            assertThrows(IllegalArgumentException.class, () -> multiset.setCount("a", -1));
+        }
+    }
+
+    @Test
+    public void testAddAll() {
+        for (Supplier<Multiset<String>> implementation : IMPLEMENTATIONS) {
+            Multiset<String> source = new CompactHashMultiset<>();
+            source.add("a", 1000000);
+            source.add("b", 2);
+            Multiset<String> multiset = implementation.get();
+            multiset.add("b");
+            assertTrue(multiset.addAll(source));
+            assertEquals(Map.of("a", 1000000, "b", 3), counts(multiset));
+            assertEquals(1000003, multiset.size());
+            assertFalse(multiset.addAll(implementation.get()));
+            assertTrue(multiset.addAll(multiset));
+            assertEquals(Map.of("a", 2000000, "b", 6), counts(multiset));
+            assertTrue(multiset.addAll(List.of("c", "c")));
+            assertEquals(2, multiset.count("c"));
+        }
+    }
+
+    @Test
+    public void testNullElement() {
+        for (Supplier<Multiset<String>> implementation : List.<Supplier<Multiset<String>>>of(
+                HashMultiset::new, CompactHashMultiset::new)) {
+            Multiset<String> multiset = implementation.get();
+            multiset.add(null, 3);
+            assertEquals(3, multiset.count(null));
+            assertEquals(2, multiset.remove(null, 2));
+            assertEquals(1, multiset.setCount(null, 5));
+            assertEquals(5, multiset.size());
+        }
+    }
+
+    @Test
+    public void testOverflow() {
+        for (Supplier<Multiset<String>> implementation : List.<Supplier<Multiset<String>>>of(
+                HashMultiset::new, CompactHashMultiset::new)) {
+            Multiset<String> multiset = implementation.get();
+            multiset.add("a", Integer.MAX_VALUE);
+            assertThrows(IllegalArgumentException.class, () -> multiset.add("a", 1));
+            assertThrows(IllegalArgumentException.class, () -> multiset.add("a"));
+            assertThrows(IllegalArgumentException.class, () -> multiset.add("b", 1));
+            assertThrows(IllegalArgumentException.class, () -> multiset.setCount("b", 1));
+            assertFalse(multiset.contains("b"));
+            assertEquals(Integer.MAX_VALUE, multiset.count("a"));
+            assertEquals(Integer.MAX_VALUE, multiset.size());
+            assertEquals(Integer.MAX_VALUE, multiset.setCount("a", 5));
+            assertEquals(0, multiset.setCount("b", Integer.MAX_VALUE - 5));
+            assertThrows(IllegalArgumentException.class, () -> multiset.setCount("a", 6));
+            assertEquals(Map.of("a", 5, "b", Integer.MAX_VALUE - 5), counts(multiset));
+            assertEquals(Integer.MAX_VALUE, multiset.size());
+        }
+    }
+}